@@ -0,0 +1,72 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prints each benchmark of a JMH JSON result next to the same benchmark in a baseline result.
+// A change is only called faster or slower when it is larger than both runs' error margins together.
+//   java BenchmarkComparison <baseline.json> <result.json>
+public final class BenchmarkComparison {
+
+  private BenchmarkComparison() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: BenchmarkComparison <baseline.json> <result.json>");
+    }
+    ObjectMapper objectMapper = new ObjectMapper();
+    Map<String, JsonNode> baseline = byName(objectMapper.readTree(new File(args[0])));
+    Map<String, JsonNode> result = byName(objectMapper.readTree(new File(args[1])));
+
+    System.out.printf("%-80s %14s %14s %9s%n", "Benchmark", "Baseline", "Result", "Change");
+    for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+      JsonNode current = entry.getValue();
+      JsonNode previous = baseline.get(entry.getKey());
+      JsonNode metric = current.get("primaryMetric");
+      String unit = metric.get("scoreUnit").asText();
+      if (previous == null) {
+        System.out.printf("%-80s %14s %14.3f %9s  %s%n", entry.getKey(), "-", metric.get("score").asDouble(), "new",
+            unit);
+        continue;
+      }
+
+      double before = previous.get("primaryMetric").get("score").asDouble();
+      double after = metric.get("score").asDouble();
+      double noise = error(previous) + error(current);
+      double change = (after - before) / before * 100;
+      // Throughput is better when higher, every other mode (time per operation) when lower
+      boolean higherIsBetter = "thrpt".equals(current.get("mode").asText());
+      String verdict = Math.abs(after - before) <= noise ? ""
+          : (after > before) == higherIsBetter ? "faster" : "slower";
+      System.out.printf("%-80s %14.3f %14.3f %+8.1f%%  %s %s%n", entry.getKey(), before, after, change, unit,
+          verdict);
+    }
+  }
+
+  private static double error(JsonNode benchmark) {
+    double error = benchmark.get("primaryMetric").get("scoreError").asDouble();
+    return Double.isNaN(error) ? 0 : error;
+  }
+
+  private static Map<String, JsonNode> byName(JsonNode results) {
+    Map<String, JsonNode> byName = new LinkedHashMap<>();
+    for (JsonNode benchmark : results) {
+      StringBuilder name = new StringBuilder(benchmark.get("benchmark").asText());
+      JsonNode params = benchmark.get("params");
+      if (params != null) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+          Map.Entry<String, JsonNode> param = it.next();
+          name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+        }
+      }
+      byName.put(name.toString(), benchmark);
+    }
+    return byName;
+  }
+}
@@ -0,0 +1,46 @@
+package net.javaguides.springboot.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.javaguides.springboot.SpringBootTestingApplication;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The application as configured in application.properties, without the web server and with an in-memory
+// H2 database in MySQL mode in place of MySQL, seeded with EMPLOYEES rows named First<i> Last<i>.
+final class BenchmarkContext {
+  static final int EMPLOYEES = 1_000;
+
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start() {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+        .web(WebApplicationType.NONE)
+        // As command line arguments, so they win over application.properties
+        .run("--spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--employee.sql-log.enabled=false",
+            "--logging.level.root=warn");
+
+    List<Employee> employees = new ArrayList<>(EMPLOYEES);
+    for (int i = 0; i < EMPLOYEES; i++) {
+      employees.add(employee(i));
+    }
+    context.getBean(EmployeeRepository.class).saveAll(employees);
+    return context;
+  }
+
+  static Employee employee(long i) {
+    return Employee.builder()
+        .firstName("First" + i)
+        .lastName("Last" + i)
+        .email(i + "@gmail.com")
+        .build();
+  }
+}
@@ -0,0 +1,161 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.config.JacksonProtobufHttpMessageConverter;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Encode and decode time per format the employee endpoints negotiate, for one Employee, one EmployeeDto and a
+// default-size page as GET /api/employees writes it. Payload sizes are printed once per trial, e.g.
+//   mvn -Pjmh verify -Djmh.args=EmployeeFormatBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeFormatBenchmark {
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"json", "cbor", "smile", "protobuf"})
+  private String format;
+
+  private ObjectWriter employeeWriter;
+  private ObjectReader employeeReader;
+  private ObjectWriter dtoWriter;
+  private ObjectReader dtoReader;
+  private ObjectMapper mapper;
+
+  private Employee employee;
+  private EmployeeDto dto;
+  private List<Employee> page;
+  private byte[] employeeBytes;
+  private byte[] dtoBytes;
+  private byte[] pageBytes;
+
+  @Setup
+  public void setup() throws IOException {
+    // Same modules as the application's converters
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule());
+    mapper = switch (format) {
+      case "json" -> builder.build();
+      case "cbor" -> builder.factory(new CBORFactory()).build();
+      case "smile" -> builder.factory(new SmileFactory()).build();
+      case "protobuf" -> builder.factory(new ProtobufFactory()).build();
+      default -> throw new IllegalArgumentException(format);
+    };
+    employeeWriter = mapper.writerFor(Employee.class);
+    employeeReader = mapper.readerFor(Employee.class);
+    dtoWriter = mapper.writerFor(EmployeeDto.class);
+    dtoReader = mapper.readerFor(EmployeeDto.class);
+    if (mapper.getFactory() instanceof ProtobufFactory) {
+      ProtobufMapper schemas = new ProtobufMapper();
+      employeeWriter = employeeWriter.with(schemas.generateSchemaFor(Employee.class));
+      employeeReader = employeeReader.with(schemas.generateSchemaFor(Employee.class));
+      dtoWriter = dtoWriter.with(schemas.generateSchemaFor(EmployeeDto.class));
+      dtoReader = dtoReader.with(schemas.generateSchemaFor(EmployeeDto.class));
+    }
+
+    employee = employee(1);
+    dto = new EmployeeDto(employee.getFirstName(), employee.getLastName());
+    page = new ArrayList<>(PAGE_SIZE);
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      page.add(employee(i));
+    }
+    employeeBytes = writeEmployee();
+    dtoBytes = writeDto();
+    pageBytes = writePage();
+
+    System.out.printf("%n%s payload: Employee %d bytes, EmployeeDto %d bytes, page of %d %d bytes%n",
+        format, employeeBytes.length, dtoBytes.length, PAGE_SIZE, pageBytes.length);
+  }
+
+  private static Employee employee(long i) {
+    Employee employee = BenchmarkContext.employee(i);
+    employee.setId(i + 1);
+    return employee;
+  }
+
+  @Benchmark
+  public byte[] writeEmployee() throws IOException {
+    return employeeWriter.writeValueAsBytes(employee);
+  }
+
+  @Benchmark
+  public Employee readEmployee() throws IOException {
+    return employeeReader.readValue(employeeBytes);
+  }
+
+  @Benchmark
+  public byte[] writeDto() throws IOException {
+    return dtoWriter.writeValueAsBytes(dto);
+  }
+
+  @Benchmark
+  public EmployeeDto readDto() throws IOException {
+    return dtoReader.readValue(dtoBytes);
+  }
+
+  // An array, except for protobuf, which has no top-level arrays and sends length-delimited messages instead
+  @Benchmark
+  public byte[] writePage() throws IOException {
+    if (mapper.getFactory() instanceof ProtobufFactory) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      for (Employee pageEmployee : page) {
+        JacksonProtobufHttpMessageConverter.writeDelimited(employeeWriter, pageEmployee, outputStream);
+      }
+      return outputStream.toByteArray();
+    }
+    return employeeWriter.forType(Employee[].class).writeValueAsBytes(page.toArray(Employee[]::new));
+  }
+
+  @Benchmark
+  public List<Employee> readPage() throws IOException {
+    if (mapper.getFactory() instanceof ProtobufFactory) {
+      List<Employee> employees = new ArrayList<>(PAGE_SIZE);
+      ByteArrayInputStream inputStream = new ByteArrayInputStream(pageBytes);
+      while (inputStream.available() > 0) {
+        employees.add(employeeReader.readValue(inputStream.readNBytes(readVarint(inputStream))));
+      }
+      return employees;
+    }
+    return employeeReader.forType(mapper.getTypeFactory().constructCollectionType(List.class, Employee.class))
+        .readValue(pageBytes);
+  }
+
+  private static int readVarint(ByteArrayInputStream inputStream) {
+    int value = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = inputStream.read();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package net.javaguides.springboot.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// A page of managed Employee entities against the same page as EmployeeDto projections, on their own and
+// inside a read-write transaction, where Hibernate also keeps a dirty-checking snapshot of every entity.
+// The DTO page includes the directory endpoint's next-cursor lookup, one read of the primary key index.
+// Heap per page is gc.alloc.rate.norm from the GC profiler:
+//   mvn -Pjmh verify -Djmh.args="EmployeeProjectionBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeProjectionBenchmark {
+  // 50 is the default page size, 500 the largest one served
+  @Param({"50", "500"})
+  private int pageSize;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeService employeeService;
+  private TransactionTemplate transactionTemplate;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    employeeService = context.getBean(EmployeeService.class);
+    transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Employee> entityPage() {
+    return employeeService.getEmployeesAfter(0, pageSize);
+  }
+
+  @Benchmark
+  public List<EmployeeDto> dtoPage() {
+    return employeeService.getDirectoryAfter(0, pageSize, cursor -> { });
+  }
+
+  @Benchmark
+  public List<Employee> entityPageInTransaction() {
+    return transactionTemplate.execute(status -> employeeService.getEmployeesAfter(0, pageSize));
+  }
+
+  @Benchmark
+  public List<EmployeeDto> dtoPageInTransaction() {
+    return transactionTemplate.execute(status -> employeeService.getDirectoryAfter(0, pageSize, cursor -> { }));
+  }
+}
@@ -0,0 +1,73 @@
+package net.javaguides.springboot.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// A large read of managed entities three ways: the service's read-only transaction, the same call inside a
+// read-write transaction (snapshots kept and dirty-checked at commit), and the repository query with no
+// transaction at all, as the service ran it before its reads were transactional. Heap per read is
+// gc.alloc.rate.norm from the GC profiler:
+//   mvn -Pjmh verify -Djmh.args="EmployeeReadOnlyBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeReadOnlyBenchmark {
+  // The largest page served and the whole seeded table
+  @Param({"500", "1000"})
+  private int rows;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeService employeeService;
+  private EmployeeRepository employeeRepository;
+  private TransactionTemplate readWrite;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    employeeService = context.getBean(EmployeeService.class);
+    employeeRepository = context.getBean(EmployeeRepository.class);
+    readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Employee> readOnlyTransaction() {
+    return employeeService.getEmployeesAfter(0, rows);
+  }
+
+  @Benchmark
+  public List<Employee> readWriteTransaction() {
+    return readWrite.execute(status -> employeeService.getEmployeesAfter(0, rows));
+  }
+
+  @Benchmark
+  public List<Employee> noTransaction() {
+    return employeeRepository.findPageAfter(0, PageRequest.ofSize(rows));
+  }
+}
@@ -0,0 +1,69 @@
+package net.javaguides.springboot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The four first name + last name finders, JPQL and native, positional and named parameters
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeRepositoryBenchmark {
+  private ConfigurableApplicationContext context;
+  private EmployeeRepository employeeRepository;
+  private long next;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    employeeRepository = context.getBean(EmployeeRepository.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  private long nextIndex() {
+    return next++ % BenchmarkContext.EMPLOYEES;
+  }
+
+  @Benchmark
+  public Employee findByJPQL() {
+    long i = nextIndex();
+    return employeeRepository.findByJPQL("First" + i, "Last" + i);
+  }
+
+  @Benchmark
+  public Employee findByJPQLNamedParam() {
+    long i = nextIndex();
+    return employeeRepository.findByJPQLNamedParam("First" + i, "Last" + i);
+  }
+
+  @Benchmark
+  public Employee findByNativeSQL() {
+    long i = nextIndex();
+    return employeeRepository.findByNativeSQL("First" + i, "Last" + i);
+  }
+
+  @Benchmark
+  public Employee findByNativeSQLNamedParameters() {
+    long i = nextIndex();
+    return employeeRepository.findByNativeSQLNamedParameters("First" + i, "Last" + i);
+  }
+}
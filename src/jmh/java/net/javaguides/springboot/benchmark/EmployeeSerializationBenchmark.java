@@ -0,0 +1,73 @@
+package net.javaguides.springboot.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Jackson writing one Employee and lists of them, with the ObjectMapper defaults Spring MVC uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeSerializationBenchmark {
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private final Employee employee = employee(1);
+
+  @State(Scope.Benchmark)
+  public static class Page {
+    // 50 is the default page size, 500 the largest GET /api/employees serves
+    @Param({"1", "50", "500", "10000"})
+    private int size;
+
+    private List<Employee> employees;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+      employees = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        employees.add(employee(i));
+      }
+      json = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(employees);
+    }
+  }
+
+  private static Employee employee(long i) {
+    Employee employee = BenchmarkContext.employee(i);
+    employee.setId(i + 1);
+    return employee;
+  }
+
+  @Benchmark
+  public byte[] writeEmployee() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(employee);
+  }
+
+  @Benchmark
+  public byte[] writeEmployees(Page page) throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(page.employees);
+  }
+
+  @Benchmark
+  public Employee[] readEmployees(Page page) throws IOException {
+    return objectMapper.readValue(page.json, Employee[].class);
+  }
+}
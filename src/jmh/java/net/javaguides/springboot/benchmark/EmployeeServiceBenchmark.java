@@ -0,0 +1,75 @@
+package net.javaguides.springboot.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+
+// EmployeeServiceImpl through its Spring proxies (cache, transactions, metrics aspect) on H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeServiceBenchmark {
+  private ConfigurableApplicationContext context;
+  private EmployeeService employeeService;
+  private long firstId;
+  private long next;
+  private long created = BenchmarkContext.EMPLOYEES;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    employeeService = context.getBean(EmployeeService.class);
+    firstId = context.getBean(EmployeeRepository.class).findPageAfter(0, Pageable.ofSize(1)).get(0).getId();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  private long nextId() {
+    return firstId + (next++ % BenchmarkContext.EMPLOYEES);
+  }
+
+  // Served from the Caffeine cache after the first pass over the ids
+  @Benchmark
+  public Optional<Employee> getEmployeeById() {
+    return employeeService.getEmployeeById(nextId());
+  }
+
+  @Benchmark
+  public List<Employee> getEmployeesAfter() {
+    return employeeService.getEmployeesAfter(0, 50);
+  }
+
+  @Benchmark
+  public boolean patchEmployee() {
+    long id = nextId();
+    return employeeService.patchEmployee(id, Employee.builder().firstName("First" + (id - firstId)).build());
+  }
+
+  @Benchmark
+  public boolean saveAndDeleteEmployee() {
+    Employee saved = employeeService.saveEmployee(BenchmarkContext.employee(created++));
+    return employeeService.deleteEmployee(saved.getId());
+  }
+}
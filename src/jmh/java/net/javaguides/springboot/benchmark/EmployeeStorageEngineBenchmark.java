@@ -0,0 +1,107 @@
+package net.javaguides.springboot.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.FileSystemUtils;
+
+// The same reads and a write against the JPA repository (H2 in memory, so no network in the JPA numbers) and
+// against InMemoryEmployeeRepository with its change log in a temporary directory, without fsync:
+//   mvn -Pjmh verify -Djmh.args="EmployeeStorageEngineBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeStorageEngineBenchmark {
+  private static final int PAGE_SIZE = 50;
+
+  private ConfigurableApplicationContext context;
+  private EmployeeRepository jpaRepository;
+  private InMemoryEmployeeRepository inMemoryRepository;
+  private Path directory;
+  private long[] jpaIds;
+  private long[] inMemoryIds;
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    context = BenchmarkContext.start();
+    jpaRepository = context.getBean(EmployeeRepository.class);
+    jpaIds = jpaRepository.findAll().stream().mapToLong(Employee::getId).toArray();
+
+    directory = Files.createTempDirectory("employee-benchmark");
+    inMemoryRepository = new InMemoryEmployeeRepository(directory, 64, Duration.ZERO, false);
+    inMemoryIds = new long[BenchmarkContext.EMPLOYEES];
+    for (int i = 0; i < BenchmarkContext.EMPLOYEES; i++) {
+      inMemoryIds[i] = inMemoryRepository.save(BenchmarkContext.employee(i)).getId();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    inMemoryRepository.close();
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public Optional<Employee> jpaFindById() {
+    return jpaRepository.findById(jpaIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public Optional<Employee> inMemoryFindById() {
+    return inMemoryRepository.findById(inMemoryIds[nextIndex()]);
+  }
+
+  @Benchmark
+  public List<Employee> jpaPage() {
+    return jpaRepository.findPageAfter(jpaIds[nextIndex() % (jpaIds.length - PAGE_SIZE)],
+        PageRequest.ofSize(PAGE_SIZE));
+  }
+
+  @Benchmark
+  public List<Employee> inMemoryPage() {
+    return inMemoryRepository.findPageAfter(inMemoryIds[nextIndex() % (inMemoryIds.length - PAGE_SIZE)],
+        PAGE_SIZE);
+  }
+
+  @Benchmark
+  public int jpaPatch() {
+    int index = nextIndex();
+    return jpaRepository.patchEmployee(jpaIds[index], "First" + index, null, null);
+  }
+
+  @Benchmark
+  public int inMemoryPatch() {
+    int index = nextIndex();
+    return inMemoryRepository.patchEmployee(inMemoryIds[index], "First" + index, null, null);
+  }
+
+  private int nextIndex() {
+    next = next + 1 == BenchmarkContext.EMPLOYEES ? 0 : next + 1;
+    return next;
+  }
+}
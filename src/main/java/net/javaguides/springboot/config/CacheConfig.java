@@ -0,0 +1,59 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+  public static final String EMPLOYEES = "employees";
+
+  // Evictions issued inside a transaction are applied after commit, so a reader cannot re-cache the old row
+  @Bean
+  public CacheManager cacheManager(
+      @Value("${employee.cache.maximum-size:10000}") long maximumSize,
+      @Value("${employee.cache.ttl:10m}") Duration ttl,
+      @Value("${employee.cache.negative-ttl:5s}") Duration negativeTtl) {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager(EMPLOYEES);
+    cacheManager.setCaffeine(Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new NegativeAwareExpiry(ttl, negativeTtl))
+        .recordStats());
+    return new TransactionAwareCacheManagerProxy(cacheManager);
+  }
+
+  // Missing ids are cached as NullValue and expire sooner than real rows
+  static class NegativeAwareExpiry implements Expiry<Object, Object> {
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    NegativeAwareExpiry(Duration ttl, Duration negativeTtl) {
+      this.ttlNanos = ttl.toNanos();
+      this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+      return value instanceof NullValue ? negativeTtlNanos : ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
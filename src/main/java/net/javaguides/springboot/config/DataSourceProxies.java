@@ -0,0 +1,31 @@
+package net.javaguides.springboot.config;
+
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// One datasource-proxy per DataSource bean, shared by every listener that wants to see JDBC calls
+// (SqlStatisticsConfig, SqlLogConfig), whichever of their post processors runs first.
+final class DataSourceProxies {
+
+  private DataSourceProxies() {
+  }
+
+  static Object withListener(Object bean, String beanName, QueryExecutionListener queryListener,
+      MethodExecutionListener methodListener) {
+    if (!(bean instanceof DataSource dataSource)) {
+      return bean;
+    }
+    ProxyDataSource proxy = dataSource instanceof ProxyDataSource existing ? existing
+        : ProxyDataSourceBuilder.create(beanName, dataSource).proxyResultSet().build();
+    if (queryListener != null) {
+      proxy.getProxyConfig().getQueryListener().addListener(queryListener);
+    }
+    if (methodListener != null) {
+      proxy.getProxyConfig().getMethodListener().addListener(methodListener);
+    }
+    return proxy;
+  }
+}
@@ -0,0 +1,28 @@
+package net.javaguides.springboot.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("inmemory")
+public class InMemoryRepositoryConfig {
+
+  // An empty directory keeps the employees in memory only; closing the context writes a last snapshot
+  @Bean
+  public InMemoryEmployeeRepository inMemoryEmployeeRepository(
+      @Value("${employee.inmemory.directory:}") String directory,
+      @Value("${employee.inmemory.stripes:64}") int stripes,
+      @Value("${employee.inmemory.snapshot-interval:5m}") Duration snapshotInterval,
+      @Value("${employee.inmemory.fsync:false}") boolean fsync) throws IOException {
+    if (directory.isBlank()) {
+      return new InMemoryEmployeeRepository(stripes);
+    }
+    return new InMemoryEmployeeRepository(Path.of(directory), stripes, snapshotInterval, fsync);
+  }
+}
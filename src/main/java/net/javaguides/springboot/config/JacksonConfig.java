@@ -0,0 +1,56 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class JacksonConfig implements WebMvcConfigurer {
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+  // Property access through generated lambdas instead of reflection; Boot adds Module beans to its ObjectMapper
+  @Bean
+  public Module blackbirdModule() {
+    return new BlackbirdModule();
+  }
+
+  // Binary formats picked through the Accept and Content-Type headers. Each converter bean replaces Spring MVC's
+  // default one and gets Boot's configured builder, so the modules and features match the JSON ObjectMapper
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public JacksonProtobufHttpMessageConverter protobufHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new JacksonProtobufHttpMessageConverter(builder.factory(new ProtobufFactory()).build());
+  }
+
+  // Boot puts converter beans that replace none of Spring MVC's defaults first, which would make protobuf the
+  // answer to clients that accept anything; JSON stays the default with protobuf moved to the end
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    List<HttpMessageConverter<?>> protobuf = converters.stream()
+        .filter(JacksonProtobufHttpMessageConverter.class::isInstance)
+        .toList();
+    converters.removeAll(protobuf);
+    converters.addAll(protobuf);
+  }
+}
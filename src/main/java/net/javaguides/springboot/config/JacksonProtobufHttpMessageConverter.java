@@ -0,0 +1,108 @@
+package net.javaguides.springboot.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schemagen.ProtobufSchemaGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+
+// Protobuf for the same models the JSON endpoints use: the .proto schema is generated from the class through
+// Jackson, with field tags from @JsonProperty(index) (property order would renumber fields whenever one is added
+// or moved). static/employees.proto is that schema for clients. Protobuf has no top-level arrays, maps or scalars,
+// so only single messages are read and written here; a list is sent as length-delimited messages through
+// writeDelimited
+public class JacksonProtobufHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+  public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+  public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+
+  private final Map<JavaType, Optional<ProtobufSchema>> schemas = new ConcurrentHashMap<>();
+
+  public JacksonProtobufHttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper, APPLICATION_PROTOBUF);
+    Assert.isInstanceOf(ProtobufFactory.class, objectMapper.getFactory(), "ProtobufFactory required");
+  }
+
+  @Override
+  public void setObjectMapper(ObjectMapper objectMapper) {
+    Assert.isInstanceOf(ProtobufFactory.class, objectMapper.getFactory(), "ProtobufFactory required");
+    super.setObjectMapper(objectMapper);
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return super.canRead(clazz, mediaType) && hasSchema(getJavaType(clazz, null));
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return super.canRead(type, contextClass, mediaType) && hasSchema(getJavaType(type, contextClass));
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return super.canWrite(clazz, mediaType) && hasSchema(getJavaType(clazz, null));
+  }
+
+  private boolean hasSchema(JavaType javaType) {
+    return !javaType.isContainerType() && schemas.computeIfAbsent(javaType, this::generateSchema).isPresent();
+  }
+
+  @Override
+  protected ObjectReader customizeReader(ObjectReader reader, JavaType javaType) {
+    return reader.with(getSchema(javaType));
+  }
+
+  @Override
+  protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType mediaType) {
+    return writer.with(getSchema(javaType));
+  }
+
+  public ObjectWriter writerFor(Class<?> type) {
+    JavaType javaType = getObjectMapper().constructType(type);
+    return getObjectMapper().writerFor(javaType).with(getSchema(javaType));
+  }
+
+  public ProtobufSchema schemaFor(Class<?> type) {
+    return getSchema(getObjectMapper().constructType(type));
+  }
+
+  // Varint length then the message, as protobuf's writeDelimitedTo and parseDelimitedFrom expect
+  public static void writeDelimited(ObjectWriter writer, Object value, OutputStream outputStream) throws IOException {
+    byte[] message = writer.writeValueAsBytes(value);
+    int length = message.length;
+    while ((length & ~0x7F) != 0) {
+      outputStream.write((length & 0x7F) | 0x80);
+      length >>>= 7;
+    }
+    outputStream.write(length);
+    outputStream.write(message);
+  }
+
+  private ProtobufSchema getSchema(JavaType javaType) {
+    return schemas.computeIfAbsent(javaType, this::generateSchema)
+        .orElseThrow(() -> new IllegalArgumentException("No protobuf schema for " + javaType));
+  }
+
+  // Empty for types protobuf cannot have at the top level, such as strings and collections
+  private Optional<ProtobufSchema> generateSchema(JavaType javaType) {
+    try {
+      ProtobufSchemaGenerator generator = new ProtobufSchemaGenerator();
+      getObjectMapper().acceptJsonFormatVisitor(javaType, generator);
+      return Optional.of(generator.getGeneratedSchema());
+    } catch (JsonMappingException | UnsupportedOperationException e) {
+      return Optional.empty();
+    }
+  }
+}
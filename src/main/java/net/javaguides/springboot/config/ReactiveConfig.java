@@ -0,0 +1,25 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+  // Tomcat is on the classpath for the servlet stack and would otherwise be picked for WebFlux too
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Bean
+  public ReactiveEmployeeRepository reactiveEmployeeRepository(R2dbcEntityOperations entityOperations) {
+    return new R2dbcRepositoryFactory(entityOperations).getRepository(ReactiveEmployeeRepository.class);
+  }
+}
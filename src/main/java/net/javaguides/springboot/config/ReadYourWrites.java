@@ -0,0 +1,59 @@
+package net.javaguides.springboot.config;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+// The client's last write, for read-your-writes under ReplicaRoutingConfig. Write responses carry its time in
+// X-Last-Write (epoch millis); a client that sends it back has its reads go to the primary for the window after
+// that write, whichever instance or thread serves them. The ReadYourWritesFilter opens one per request and closes
+// it when the request is done, so nothing is left on a pooled thread for the next request.
+public final class ReadYourWrites implements AutoCloseable {
+  public static final String LAST_WRITE_HEADER = "X-Last-Write";
+
+  private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+  private final long windowMillis;
+  private final LongConsumer onWrite;
+  private volatile long lastWrite;
+
+  private ReadYourWrites(long lastWrite, Duration window, LongConsumer onWrite) {
+    this.lastWrite = lastWrite;
+    this.windowMillis = window.toMillis();
+    this.onWrite = onWrite;
+  }
+
+  // lastWrite is 0 when the client sent none; onWrite gets the time of each write made while this is open
+  public static ReadYourWrites open(long lastWrite, Duration window, LongConsumer onWrite) {
+    ReadYourWrites readYourWrites = new ReadYourWrites(lastWrite, window, onWrite);
+    CURRENT.set(readYourWrites);
+    return readYourWrites;
+  }
+
+  // Whether reads on this thread have to go to the primary. Loads shared with other callers (SingleFlight,
+  // BatchLoader) run on the thread of whoever started them and may read from a replica, so these reads skip them
+  public static boolean readsFromPrimary() {
+    ReadYourWrites readYourWrites = CURRENT.get();
+    return readYourWrites != null && readYourWrites.withinWindow(System.currentTimeMillis());
+  }
+
+  static ReadYourWrites current() {
+    return CURRENT.get();
+  }
+
+  // Either side of the write, so a client does not pin itself to the primary with a time far in the future
+  private boolean withinWindow(long now) {
+    long written = lastWrite;
+    return written > 0 && Math.abs(now - written) < windowMillis;
+  }
+
+  void recordWrite() {
+    long now = System.currentTimeMillis();
+    lastWrite = now;
+    onWrite.accept(now);
+  }
+
+  @Override
+  public void close() {
+    CURRENT.remove();
+  }
+}
@@ -0,0 +1,140 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Replaces the single spring.datasource pool with a primary pool plus one pool per replica URL, routed by
+// ReplicaRoutingDataSource: read-only transactions (the EmployeeServiceImpl reads) go to a replica, the rest to
+// the primary. Replica pools take their settings from spring.datasource.hikari. /actuator/health reports each
+// pool under db, and its verdict on a replica takes it out of rotation or puts it back.
+@Configuration
+@ConditionalOnProperty(name = "employee.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  public DataSource dataSource(DataSourceProperties properties, Environment environment,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${employee.datasource.routing.replica-urls}") List<String> replicaUrls,
+      @Value("${employee.datasource.routing.replica-username:${spring.datasource.username:}}") String username,
+      @Value("${employee.datasource.routing.replica-password:${spring.datasource.password:}}") String password,
+      @Value("${employee.datasource.routing.replica-connection-timeout:1s}") Duration connectionTimeout,
+      @Value("${employee.datasource.routing.balancer:round-robin}") ReplicaRoutingDataSource.Balancer balancer,
+      @Value("${employee.datasource.routing.failover-retry:10s}") Duration failoverRetry) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    if (primary.getPoolName() == null) {
+      primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+    for (String url : replicaUrls) {
+      HikariConfig config = new HikariConfig();
+      primary.copyStateTo(config);
+      config.setJdbcUrl(url);
+      config.setUsername(username);
+      config.setPassword(password);
+      config.setPoolName("replica-" + replicas.size());
+      // Fail over quickly, and start even when a replica is down
+      config.setConnectionTimeout(connectionTimeout.toMillis());
+      config.setInitializationFailTimeout(-1);
+      meterRegistry.ifAvailable(registry ->
+          config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+      replicas.add(new HikariDataSource(config));
+    }
+
+    return new LazyRoutingDataSource(
+        new ReplicaRoutingDataSource(primary, replicas, balancer, failoverRetry));
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      @Value("${employee.datasource.routing.read-your-writes:1s}") Duration readYourWrites) {
+    return new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWrites));
+  }
+
+  // Takes the place of the db health check Spring Boot would add, which only reaches the primary through the
+  // routing data source
+  @Bean
+  public HealthContributor dbHealthContributor(DataSource dataSource) throws SQLException {
+    return dataSource.unwrap(ReplicaRoutingDataSource.class).healthContributor();
+  }
+
+  // Fetches the connection at the first statement, once the transaction's read-only flag is known, and closes
+  // the pools with the context
+  static final class LazyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    LazyRoutingDataSource(ReplicaRoutingDataSource routingDataSource) {
+      super(routingDataSource);
+      this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public void close() {
+      routingDataSource.close();
+    }
+  }
+
+  // Scopes ReadYourWrites to the request: the client's X-Last-Write comes in, the time of any write it makes goes
+  // out in the same header. A zero window turns read-your-writes off
+  static final class ReadYourWritesFilter extends OncePerRequestFilter {
+    private final Duration window;
+
+    ReadYourWritesFilter(Duration window) {
+      this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+      if (window.isZero()) {
+        chain.doFilter(request, response);
+        return;
+      }
+      try (ReadYourWrites readYourWrites = ReadYourWrites.open(lastWrite(request), window,
+          written -> response.setHeader(ReadYourWrites.LAST_WRITE_HEADER, String.valueOf(written)))) {
+        chain.doFilter(request, response);
+      }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+      String header = request.getHeader(ReadYourWrites.LAST_WRITE_HEADER);
+      if (header == null) {
+        return 0;
+      }
+      try {
+        return Long.parseLong(header.trim());
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+  }
+}
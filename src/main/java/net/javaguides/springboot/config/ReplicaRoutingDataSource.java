@@ -0,0 +1,233 @@
+package net.javaguides.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Connections for read-only transactions come from a replica pool, everything else (writes, reads outside a
+// transaction, schema management) from the primary. Needs a LazyConnectionDataSourceProxy in front: the
+// transaction is only marked read-only after JpaTransactionManager has asked for its connection.
+//  - replicas are picked round-robin or by fewest active connections
+//  - a replica that fails to hand out a connection, or that the health check finds down, is skipped for
+//    failoverRetry, then tried again; with no replica left reads go to the primary
+//  - reads of a request whose client wrote within the read-your-writes window (ReadYourWrites) stay on the
+//    primary, so they see the write while the replicas catch up
+final class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+  static final String PRIMARY = "primary";
+
+  enum Balancer {
+    ROUND_ROBIN, LEAST_CONNECTIONS
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final DataSource primary;
+  private final List<Replica> replicas = new ArrayList<>();
+  private final Balancer balancer;
+  private final long failoverRetryNanos;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Balancer balancer,
+      Duration failoverRetry) {
+    this.primary = primary;
+    this.balancer = balancer;
+    this.failoverRetryNanos = failoverRetry.toNanos();
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica replica = new Replica("replica-" + i, replicas.get(i));
+      this.replicas.add(replica);
+      targets.put(replica.key, replica.dataSource);
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      recordWrite();
+      return PRIMARY;
+    }
+    if (ReadYourWrites.readsFromPrimary()) {
+      return PRIMARY;
+    }
+    Replica replica = pickReplica();
+    return replica == null ? PRIMARY : replica.key;
+  }
+
+  // A replica that cannot hand out a connection is taken out of rotation and the next one is tried
+  @Override
+  public Connection getConnection() throws SQLException {
+    for (int attempt = 0; attempt < replicas.size(); attempt++) {
+      Object key = determineCurrentLookupKey();
+      Replica replica = replica(key);
+      if (replica == null) {
+        break;
+      }
+      try {
+        return replica.dataSource.getConnection();
+      } catch (SQLException e) {
+        replica.markDown(System.nanoTime() + failoverRetryNanos);
+        log.warn("Replica {} failed, sending its reads elsewhere for the next {} ms: {}", replica.key,
+            failoverRetryNanos / 1_000_000, e.getMessage());
+      }
+    }
+    return primary.getConnection();
+  }
+
+  private Replica pickReplica() {
+    long now = System.nanoTime();
+    List<Replica> up = new ArrayList<>(replicas.size());
+    for (Replica replica : replicas) {
+      if (replica.isUp(now)) {
+        up.add(replica);
+      }
+    }
+    if (up.isEmpty()) {
+      return null;
+    }
+    if (balancer == Balancer.LEAST_CONNECTIONS) {
+      Replica least = up.get(0);
+      for (Replica replica : up) {
+        if (replica.activeConnections() < least.activeConnections()) {
+          least = replica;
+        }
+      }
+      return least;
+    }
+    return up.get(Math.floorMod(nextReplica.getAndIncrement(), up.size()));
+  }
+
+  private Replica replica(Object key) {
+    for (Replica replica : replicas) {
+      if (replica.key.equals(key)) {
+        return replica;
+      }
+    }
+    return null;
+  }
+
+  // Any primary connection outside a read-only transaction counts: a transaction may fetch its connection before
+  // it is registered, and pinning a client that only read costs nothing but replica offload. The window starts
+  // again when the transaction completes, if it is known by then
+  private static void recordWrite() {
+    ReadYourWrites readYourWrites = ReadYourWrites.current();
+    if (readYourWrites == null) {
+      return;
+    }
+    readYourWrites.recordWrite();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          readYourWrites.recordWrite();
+        }
+      });
+    }
+  }
+
+  // The primary and each replica for /actuator/health. A replica found down is taken out of rotation as if a read
+  // had failed on it, and one found up is put back at once
+  CompositeHealthContributor healthContributor() {
+    Map<String, HealthContributor> contributors = new LinkedHashMap<>();
+    contributors.put(PRIMARY, new DataSourceHealthIndicator(primary));
+    for (Replica replica : replicas) {
+      contributors.put(replica.key, new ReplicaHealthIndicator(replica));
+    }
+    return CompositeHealthContributor.fromMap(contributors);
+  }
+
+  @Override
+  public void close() {
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof HikariDataSource pool) {
+        pool.close();
+      }
+    }
+    if (primary instanceof HikariDataSource pool) {
+      pool.close();
+    }
+  }
+
+  private static final class Replica {
+    private final String key;
+    private final DataSource dataSource;
+    private volatile long downUntil;
+    private volatile boolean down;
+
+    private Replica(String key, DataSource dataSource) {
+      this.key = key;
+      this.dataSource = dataSource;
+    }
+
+    private boolean isUp(long now) {
+      return !down || now - downUntil >= 0;
+    }
+
+    private void markDown(long until) {
+      downUntil = until;
+      down = true;
+    }
+
+    private void markUp() {
+      down = false;
+    }
+
+    // Hikari pools report their busy connections; other data sources all count as idle
+    private int activeConnections() {
+      if (dataSource instanceof HikariDataSource pool) {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        return poolBean == null ? 0 : poolBean.getActiveConnections();
+      }
+      return 0;
+    }
+  }
+
+  private final class ReplicaHealthIndicator implements HealthIndicator {
+    private final Replica replica;
+    private final HealthIndicator dataSourceHealth;
+
+    private ReplicaHealthIndicator(Replica replica) {
+      this.replica = replica;
+      this.dataSourceHealth = new DataSourceHealthIndicator(replica.dataSource);
+    }
+
+    @Override
+    public Health health() {
+      Health health = dataSourceHealth.health();
+      if (Status.UP.equals(health.getStatus())) {
+        replica.markUp();
+      } else if (Status.DOWN.equals(health.getStatus())) {
+        replica.markDown(System.nanoTime() + failoverRetryNanos);
+        log.warn("Replica {} is down, sending its reads elsewhere for the next {} ms", replica.key,
+            failoverRetryNanos / 1_000_000);
+      }
+      return health;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package net.javaguides.springboot.config;
+
+import java.time.Duration;
+import net.javaguides.springboot.metrics.AsyncSqlLogger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Sampled, slow-statement SQL logging through AsyncSqlLogger, in place of spring.jpa.show-sql
+@Configuration
+@ConditionalOnProperty(name = "employee.sql-log.enabled", havingValue = "true")
+public class SqlLogConfig {
+
+  @Bean
+  public static SqlLogDataSourcePostProcessor sqlLogDataSourcePostProcessor(
+      @Value("${employee.sql-log.sample-rate:0.01}") double sampleRate,
+      @Value("${employee.sql-log.slow-threshold:100ms}") Duration slowThreshold,
+      @Value("${employee.sql-log.buffer-size:8192}") int bufferSize) {
+    return new SqlLogDataSourcePostProcessor(new AsyncSqlLogger(sampleRate, slowThreshold.toMillis(), bufferSize));
+  }
+
+  // Also owns the logger, so the buffer is flushed when the context closes
+  static class SqlLogDataSourcePostProcessor implements BeanPostProcessor, DisposableBean {
+    private final AsyncSqlLogger sqlLogger;
+
+    SqlLogDataSourcePostProcessor(AsyncSqlLogger sqlLogger) {
+      this.sqlLogger = sqlLogger;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      return DataSourceProxies.withListener(bean, beanName, sqlLogger, null);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+      sqlLogger.close();
+    }
+  }
+}
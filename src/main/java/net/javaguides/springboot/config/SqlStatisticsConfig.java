@@ -0,0 +1,41 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.metrics.SqlStatisticsFilter;
+import net.javaguides.springboot.metrics.SqlStatisticsListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Puts a datasource-proxy in front of the connection pool so every statement and fetched row is counted
+// against the HTTP request that caused it (see SqlStatisticsFilter). Turn off with employee.sql-statistics.enabled.
+// The X-SQL-* headers give internal query counts and timings to every client, so they are opt-in.
+@Configuration
+@ConditionalOnProperty(name = "employee.sql-statistics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfig {
+
+  @Bean
+  public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+    SqlStatisticsListener listener = new SqlStatisticsListener();
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return DataSourceProxies.withListener(bean, beanName, listener, listener);
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(
+      @Value("${employee.sql-statistics.headers:false}") boolean writeHeaders) {
+    FilterRegistrationBean<SqlStatisticsFilter> registration =
+        new FilterRegistrationBean<>(new SqlStatisticsFilter(writeHeaders));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+}
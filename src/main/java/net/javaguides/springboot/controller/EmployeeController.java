@@ -1,27 +1,79 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import net.javaguides.springboot.config.JacksonConfig;
+import net.javaguides.springboot.config.JacksonProtobufHttpMessageConverter;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeDto;
 import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 public class EmployeeController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String DEFAULT_PAGE_SIZE = "50";
+  static final int MAX_PAGE_SIZE = 500;
+
   private EmployeeService employeeService;
+  private final ObjectMapper objectMapper;
+  // Serializer for Employee resolved once, not per response
+  private final ObjectWriter employeeWriter;
+  private final ContentNegotiationManager contentNegotiationManager;
+  // Converter behind each format the list endpoint writes, in the order it is preferred
+  private final Map<MediaType, AbstractJackson2HttpMessageConverter> pageConverters = new LinkedHashMap<>();
 
-  public EmployeeController(EmployeeService employeeService) {
+  public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+      HttpMessageConverters messageConverters, ObjectProvider<ContentNegotiationManager> contentNegotiationManager) {
     this.employeeService = employeeService;
+    this.objectMapper = objectMapper;
+    this.employeeWriter = objectMapper.writerFor(Employee.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    // Spring MVC's, or Accept header negotiation when the context runs without a web server
+    this.contentNegotiationManager = contentNegotiationManager.getIfAvailable(ContentNegotiationManager::new);
+
+    for (MediaType mediaType : List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+        JacksonConfig.APPLICATION_SMILE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)) {
+      messageConverters.getConverters().stream()
+          .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+          .map(AbstractJackson2HttpMessageConverter.class::cast)
+          .filter(converter -> converter.canWrite(Employee.class, mediaType))
+          .findFirst()
+          .ifPresent(converter -> pageConverters.put(mediaType, converter));
+    }
   }
 
   @PostMapping
@@ -30,11 +82,144 @@ public class EmployeeController {
     return employeeService.saveEmployee(employee);
   }
 
-
-  @GetMapping
+  @PostMapping("/batch")
   @ResponseStatus(HttpStatus.OK)
-  public List<Employee> getAllEmployees() {
-    return employeeService.getAllEmployees();
+  public List<EmployeeBatchResult> createEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
+  }
+
+
+  // The page is read in full in the service's transaction and written once that has committed, so a slow client
+  // does not keep a pooled connection checked out; MAX_PAGE_SIZE bounds what is held in memory meanwhile
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+      JacksonConfig.APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE})
+  public void getAllEmployees(
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+      NativeWebRequest request,
+      HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+    int pageSize = pageSize(limit);
+    MediaType mediaType = negotiatePageMediaType(request);
+
+    // A full page means there may be more rows: its last id is the cursor for the next one, and as it comes from
+    // the page itself both are from the same read
+    List<Employee> page = employeeService.getEmployeesAfter(after, pageSize);
+    if (page.size() == pageSize) {
+      response.setHeader(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+    }
+    writePage(mediaType, response, page);
+  }
+
+  // GET /api/employees?ids=1,2,3 reads all of them with one IN query, in the order given; unknown ids are left out
+  @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+      JacksonConfig.APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE})
+  public void getEmployeesByIds(
+      @RequestParam List<Long> ids,
+      NativeWebRequest request,
+      HttpServletResponse response) throws IOException, HttpMediaTypeNotAcceptableException {
+    MediaType mediaType = negotiatePageMediaType(request);
+    writePage(mediaType, response, employeeService.getEmployeesByIds(ids));
+  }
+
+  // Writes the employees as an array or, for protobuf, delimited messages
+  private void writePage(MediaType mediaType, HttpServletResponse response, List<Employee> employees)
+      throws IOException {
+    response.setContentType(mediaType.toString());
+
+    AbstractJackson2HttpMessageConverter converter = pageConverters.get(mediaType);
+    if (converter instanceof JacksonProtobufHttpMessageConverter protobuf) {
+      // Protobuf has no top-level arrays: the page is a sequence of length-delimited Employee messages
+      ObjectWriter writer = protobuf.writerFor(Employee.class);
+      OutputStream outputStream = response.getOutputStream();
+      for (Employee employee : employees) {
+        JacksonProtobufHttpMessageConverter.writeDelimited(writer, employee, outputStream);
+      }
+      return;
+    }
+
+    ObjectMapper mapper = converter.getObjectMapper();
+    ObjectWriter writer = mapper == objectMapper ? employeeWriter : mapper.writerFor(Employee.class);
+    try (JsonGenerator generator = mapper.createGenerator(response.getOutputStream())
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+      generator.writeStartArray();
+      for (Employee employee : employees) {
+        writer.writeValue(generator, employee);
+      }
+      generator.writeEndArray();
+    }
+  }
+
+  // The first acceptable format in the client's order of preference, JSON when anything goes
+  private MediaType negotiatePageMediaType(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+    for (MediaType acceptable : contentNegotiationManager.resolveMediaTypes(request)) {
+      for (MediaType mediaType : pageConverters.keySet()) {
+        if (acceptable.isCompatibleWith(mediaType)) {
+          return mediaType;
+        }
+      }
+    }
+    throw new HttpMediaTypeNotAcceptableException(List.copyOf(pageConverters.keySet()));
+  }
+
+
+  // Newline-delimited JSON straight from the database cursor, one employee per line
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportEmployees() {
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(outputStream)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+        generator.setRootValueSeparator(null);
+
+        employeeService.exportEmployees(employee -> {
+          write(employeeWriter, generator, employee);
+          try {
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  private static void write(ObjectWriter writer, JsonGenerator generator, Employee employee) {
+    try {
+      writer.writeValue(generator, employee);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+
+  // Directory: names only, read as DTO projections so no entities are loaded
+  @GetMapping("/directory")
+  public ResponseEntity<List<EmployeeDto>> getDirectory(
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+    int pageSize = pageSize(limit);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    List<EmployeeDto> page = employeeService.getDirectoryAfter(after, pageSize,
+        cursor -> response.header(NEXT_CURSOR_HEADER, String.valueOf(cursor)));
+    return response.body(page);
+  }
+
+  @GetMapping(value = "/directory", params = "lastName")
+  public List<EmployeeDto> getDirectoryByLastName(
+      @RequestParam String lastName,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+    return employeeService.getDirectoryByLastName(lastName, pageSize(limit));
+  }
+
+  @GetMapping("/directory/{id}")
+  public ResponseEntity<EmployeeDto> getDirectoryEntry(@PathVariable long id) {
+    return employeeService.getDirectoryEntry(id).map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  private static int pageSize(int limit) {
+    return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
   }
 
 
@@ -45,24 +230,44 @@ public class EmployeeController {
   }
 
 
+  // Every column is replaced with a single UPDATE, which also tells whether the employee exists
   @PutMapping("/{id}")
   public ResponseEntity<Employee> updateEmployee(@PathVariable long id, @RequestBody Employee employee) {
-    return employeeService.getEmployeeById(id).map(newEmployee -> {
-      newEmployee.setFirstName(employee.getFirstName());
-      newEmployee.setLastName(employee.getLastName());
-      newEmployee.setEmail(employee.getEmail());
+    Employee newEmployee = Employee.builder()
+        .id(id)
+        .firstName(employee.getFirstName())
+        .lastName(employee.getLastName())
+        .email(employee.getEmail())
+        .build();
 
-      Employee updateEmployee = employeeService.updateEmployee(newEmployee);
+    return employeeService.updateEmployee(newEmployee).map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
 
-      return new ResponseEntity<>(updateEmployee, HttpStatus.OK);
-    }).orElseGet(() -> ResponseEntity.notFound().build());
+  // Only the fields present in the body are changed, with a single UPDATE and no read beforehand
+  @PatchMapping("/{id}")
+  public ResponseEntity<String> patchEmployee(@PathVariable long id, @RequestBody Employee employee) {
+    if (!employeeService.patchEmployee(id, employee)) {
+      return ResponseEntity.notFound().build();
+    }
+    return new ResponseEntity<String>("Employee was updated", HttpStatus.OK);
   }
 
   @DeleteMapping("{id}")
-  public ResponseEntity<String> deleteEmployee(@PathVariable long id){
-    employeeService.deleteEmployee(id);
+  public ResponseEntity<Void> deleteEmployee(@PathVariable long id){
+    if (!employeeService.deleteEmployee(id)) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.noContent().build();
+  }
 
-    return new ResponseEntity<String>("Employee was deleted", HttpStatus.OK);
+  // DELETE /api/employees?ids=1,2,3 removes all of them with one statement
+  @DeleteMapping(params = "ids")
+  public ResponseEntity<Void> deleteEmployees(@RequestParam List<Long> ids) {
+    if (employeeService.deleteEmployees(ids) == 0) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.noContent().build();
   }
 }
 
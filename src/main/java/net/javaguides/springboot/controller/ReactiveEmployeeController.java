@@ -0,0 +1,116 @@
+package net.javaguides.springboot.controller;
+
+import static net.javaguides.springboot.controller.EmployeeController.DEFAULT_PAGE_SIZE;
+import static net.javaguides.springboot.controller.EmployeeController.MAX_PAGE_SIZE;
+import static net.javaguides.springboot.controller.EmployeeController.NEXT_CURSOR_HEADER;
+
+import java.util.List;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Same /api/employees contract as EmployeeController, served by WebFlux in the reactive profile
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+  private final ReactiveEmployeeService employeeService;
+
+  public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+    this.employeeService = employeeService;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+    return employeeService.saveEmployee(employee);
+  }
+
+  @PostMapping("/batch")
+  @ResponseStatus(HttpStatus.OK)
+  public Flux<EmployeeBatchResult> createEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
+  }
+
+
+  // The page is written as it arrives from the database, at the pace the client reads it
+  @GetMapping
+  public Mono<ResponseEntity<Flux<Employee>>> getAllEmployees(
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+    int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+    return employeeService.getNextCursor(after, pageSize)
+        .map(cursor -> ResponseEntity.ok().header(NEXT_CURSOR_HEADER, String.valueOf(cursor)))
+        .defaultIfEmpty(ResponseEntity.ok())
+        .map(response -> response.body(employeeService.getEmployeesAfter(after, pageSize)));
+  }
+
+
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Employee> exportEmployees() {
+    return employeeService.exportEmployees();
+  }
+
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable long id) {
+    return employeeService.getEmployeeById(id).map(ResponseEntity::ok)
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable long id, @RequestBody Employee employee) {
+    return employeeService.updateEmployee(Employee.builder()
+            .id(id)
+            .firstName(employee.getFirstName())
+            .lastName(employee.getLastName())
+            .email(employee.getEmail())
+            .build())
+        .map(ResponseEntity::ok)
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PatchMapping("/{id}")
+  public Mono<ResponseEntity<String>> patchEmployee(@PathVariable long id, @RequestBody Employee employee) {
+    return employeeService.patchEmployee(id, employee)
+        .map(updated -> updated
+            ? new ResponseEntity<>("Employee was updated", HttpStatus.OK)
+            : ResponseEntity.notFound().build());
+  }
+
+  @DeleteMapping("{id}")
+  public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable long id) {
+    return employeeService.deleteEmployee(id)
+        .map(deleted -> deleted
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build());
+  }
+
+  @DeleteMapping(params = "ids")
+  public Mono<ResponseEntity<Void>> deleteEmployees(@RequestParam List<Long> ids) {
+    return employeeService.deleteEmployees(ids)
+        .map(deleted -> deleted > 0
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build());
+  }
+}
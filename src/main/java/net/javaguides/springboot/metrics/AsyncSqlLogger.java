@@ -0,0 +1,137 @@
+package net.javaguides.springboot.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Replaces spring.jpa.show-sql. The request thread only decides whether a statement is logged (slower than
+// slowThresholdMillis, or picked at sampleRate) and offers a small entry to a bounded ring buffer; a single
+// background thread formats and writes it. Bind parameters are captured for slow statements only.
+// When the buffer is full entries are dropped rather than blocking the request, and the drop count is logged.
+public class AsyncSqlLogger implements QueryExecutionListener, AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(AsyncSqlLogger.class);
+  private static final int MAX_LOGGED_PARAMETER_SETS = 10;
+
+  private final double sampleRate;
+  private final long slowThresholdMillis;
+  private final BlockingQueue<Entry> buffer;
+  private final Thread writer;
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private volatile boolean running = true;
+
+  public AsyncSqlLogger(double sampleRate, long slowThresholdMillis, int bufferSize) {
+    this.sampleRate = sampleRate;
+    this.slowThresholdMillis = slowThresholdMillis;
+    this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    this.writer = new Thread(this::drain, "sql-log");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    long elapsedMillis = execInfo.getElapsedTime();
+    boolean slow = elapsedMillis >= slowThresholdMillis;
+    if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
+
+    List<String> statements = new ArrayList<>(queryInfoList.size());
+    for (QueryInfo queryInfo : queryInfoList) {
+      statements.add(queryInfo.getQuery());
+    }
+    Entry entry = new Entry(System.currentTimeMillis(), Thread.currentThread().getName(), elapsedMillis, slow,
+        execInfo.isSuccess(), execInfo.isBatch() ? execInfo.getBatchSize() : 0, statements,
+        slow ? parameters(queryInfoList) : null);
+    if (!buffer.offer(entry)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  private static String parameters(List<QueryInfo> queryInfoList) {
+    StringBuilder parameters = new StringBuilder("[");
+    int sets = 0;
+    for (QueryInfo queryInfo : queryInfoList) {
+      for (List<ParameterSetOperation> parameterSet : queryInfo.getParametersList()) {
+        if (sets++ == MAX_LOGGED_PARAMETER_SETS) {
+          return parameters.append("...]").toString();
+        }
+        parameters.append('(');
+        for (int i = 0; i < parameterSet.size(); i++) {
+          Object[] args = parameterSet.get(i).getArgs();
+          parameters.append(i == 0 ? "" : ",").append(args.length > 1 ? args[1] : null);
+        }
+        parameters.append(')');
+      }
+    }
+    return parameters.append(']').toString();
+  }
+
+  private void drain() {
+    long reportedDrops = 0;
+    while (running || !buffer.isEmpty()) {
+      try {
+        Entry entry = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (entry != null) {
+          write(entry);
+        }
+      } catch (InterruptedException e) {
+        running = false;
+      }
+
+      long drops = dropped.get();
+      if (drops > reportedDrops) {
+        log.warn("sql log buffer full, {} statements not logged", drops - reportedDrops);
+        reportedDrops = drops;
+      }
+    }
+  }
+
+  private void write(Entry entry) {
+    if (entry.slow()) {
+      log.warn("sql slow=true elapsed_ms={} success={} batch={} thread={} at={} statement=\"{}\" params={}",
+          entry.elapsedMillis(), entry.success(), entry.batchSize(), entry.thread(),
+          Instant.ofEpochMilli(entry.timestamp()), String.join("; ", entry.statements()), entry.parameters());
+    } else {
+      log.info("sql slow=false elapsed_ms={} success={} batch={} thread={} at={} statement=\"{}\"",
+          entry.elapsedMillis(), entry.success(), entry.batchSize(), entry.thread(),
+          Instant.ofEpochMilli(entry.timestamp()), String.join("; ", entry.statements()));
+    }
+    written.incrementAndGet();
+  }
+
+  public long getWritten() {
+    return written.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  // Writes out whatever is still buffered, then stops the writer thread
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private record Entry(long timestamp, String thread, long elapsedMillis, boolean slow, boolean success,
+      int batchSize, List<String> statements, String parameters) {
+  }
+}
@@ -0,0 +1,100 @@
+package net.javaguides.springboot.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Latency, errors and in-flight calls for every EmployeeService and EmployeeRepository method.
+// Meters are resolved once per method and kept here, so a call only costs a map lookup, two clock
+// reads and the counter updates. Runs outermost so cached service calls are timed as callers see them.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EmployeeMetricsAspect {
+  static final String CALLS = "employee.calls";
+  static final String ERRORS = "employee.calls.errors";
+  static final String ACTIVE = "employee.calls.active";
+
+  private final MeterRegistry registry;
+  private final Clock clock;
+  private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+  public EmployeeMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+    this.clock = registry.config().clock();
+  }
+
+  @Around("within(net.javaguides.springboot.service.EmployeeService+)")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, "service", EmployeeService.class);
+  }
+
+  @Around("within(net.javaguides.springboot.repository.EmployeeRepository+)")
+  public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, "repository", EmployeeRepository.class);
+  }
+
+  // Tagged with the targeted interface, also for methods inherited from JpaRepository
+  private Object time(ProceedingJoinPoint joinPoint, String layer, Class<?> type) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    MethodMeters methodMeters = meters.get(method);
+    if (methodMeters == null) {
+      methodMeters = meters.computeIfAbsent(method, m -> new MethodMeters(layer, type, m));
+    }
+
+    methodMeters.active.incrementAndGet();
+    long start = clock.monotonicTime();
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      methodMeters.error(e);
+      throw e;
+    } finally {
+      methodMeters.timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+      methodMeters.active.decrementAndGet();
+    }
+  }
+
+  private final class MethodMeters {
+    private final String layer;
+    private final String className;
+    private final String methodName;
+    private final Timer timer;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+    MethodMeters(String layer, Class<?> type, Method method) {
+      this.layer = layer;
+      this.className = type.getSimpleName();
+      this.methodName = method.getName();
+      this.timer = Timer.builder(CALLS)
+          .tags("layer", layer, "class", className, "method", methodName)
+          .register(registry);
+      Gauge.builder(ACTIVE, active, AtomicInteger::get)
+          .tags("layer", layer, "class", className, "method", methodName)
+          .register(registry);
+    }
+
+    void error(Throwable e) {
+      errors.computeIfAbsent(e.getClass(), type -> Counter.builder(ERRORS)
+          .tags("layer", layer, "class", className, "method", methodName, "exception", type.getSimpleName())
+          .register(registry)).increment();
+    }
+  }
+}
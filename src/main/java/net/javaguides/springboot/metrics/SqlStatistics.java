@@ -0,0 +1,63 @@
+package net.javaguides.springboot.metrics;
+
+import java.util.Locale;
+
+// JDBC work done on behalf of one HTTP request: statements executed, rows read and time spent in the driver.
+// Bound to the request thread by SqlStatisticsFilter and filled in by SqlStatisticsListener; statements
+// run on other threads (async exports, background jobs) are not attributed to any request.
+public final class SqlStatistics {
+  private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+  private int statements;
+  private long rows;
+  private long jdbcNanos;
+  private long callStarted;
+
+  public static SqlStatistics start() {
+    SqlStatistics statistics = new SqlStatistics();
+    CURRENT.set(statistics);
+    return statistics;
+  }
+
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  static SqlStatistics current() {
+    return CURRENT.get();
+  }
+
+  void callStarted() {
+    callStarted = System.nanoTime();
+  }
+
+  void statementExecuted() {
+    statements++;
+    jdbcNanos += System.nanoTime() - callStarted;
+  }
+
+  void rowFetched(boolean found) {
+    if (found) {
+      rows++;
+    }
+    jdbcNanos += System.nanoTime() - callStarted;
+  }
+
+  public int getStatements() {
+    return statements;
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long getJdbcNanos() {
+    return jdbcNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%d statements, %d rows, %.3f ms JDBC", statements, rows,
+        jdbcNanos / 1_000_000.0);
+  }
+}
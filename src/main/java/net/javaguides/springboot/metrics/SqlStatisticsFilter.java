@@ -0,0 +1,151 @@
+package net.javaguides.springboot.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Counts the SQL each request runs and reports it in an INFO line per request and, when writeHeaders is set, in
+// X-SQL-* response headers. Headers are written just before the first body byte, which for our handlers is after
+// the last statement; an export keeps querying after that point and only the log line has its full count.
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+  public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+  public static final String ROWS_HEADER = "X-SQL-Rows";
+  public static final String TIME_HEADER = "X-SQL-Time-Millis";
+
+  private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+  private final boolean writeHeaders;
+
+  public SqlStatisticsFilter(boolean writeHeaders) {
+    this.writeHeaders = writeHeaders;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    SqlStatistics statistics = SqlStatistics.start();
+    try {
+      if (writeHeaders) {
+        StatisticsHeaderResponse wrappedResponse = new StatisticsHeaderResponse(response, statistics);
+        chain.doFilter(request, wrappedResponse);
+        wrappedResponse.writeHeaders();
+      } else {
+        chain.doFilter(request, response);
+      }
+    } finally {
+      SqlStatistics.stop();
+      log.info("{} {}: {}", request.getMethod(), request.getRequestURI(), statistics);
+    }
+  }
+
+  private static class StatisticsHeaderResponse extends HttpServletResponseWrapper {
+    private final SqlStatistics statistics;
+    private boolean headersWritten;
+    private ServletOutputStream outputStream;
+
+    StatisticsHeaderResponse(HttpServletResponse response, SqlStatistics statistics) {
+      super(response);
+      this.statistics = statistics;
+    }
+
+    private void writeHeaders() {
+      if (headersWritten || isCommitted()) {
+        return;
+      }
+      headersWritten = true;
+      setHeader(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+      setHeader(ROWS_HEADER, String.valueOf(statistics.getRows()));
+      setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", statistics.getJdbcNanos() / 1_000_000.0));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new HeaderWritingOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      writeHeaders();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      writeHeaders();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      writeHeaders();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      writeHeaders();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      writeHeaders();
+      super.sendRedirect(location);
+    }
+
+    private class HeaderWritingOutputStream extends ServletOutputStream {
+      private final ServletOutputStream delegate;
+
+      HeaderWritingOutputStream(ServletOutputStream delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        writeHeaders();
+        delegate.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        writeHeaders();
+        delegate.write(b, off, len);
+      }
+
+      @Override
+      public void flush() throws IOException {
+        writeHeaders();
+        delegate.flush();
+      }
+
+      @Override
+      public void close() throws IOException {
+        writeHeaders();
+        delegate.close();
+      }
+
+      @Override
+      public boolean isReady() {
+        return delegate.isReady();
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+        delegate.setWriteListener(writeListener);
+      }
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package net.javaguides.springboot.metrics;
+
+import java.sql.ResultSet;
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+// Feeds SqlStatistics from the datasource-proxy callbacks. An execute call is one statement however many
+// rows or batch entries it carries; rows are counted on ResultSet.next(). Threads without a request bound
+// only pay for the ThreadLocal lookup.
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    SqlStatistics statistics = SqlStatistics.current();
+    if (statistics != null) {
+      statistics.callStarted();
+    }
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    SqlStatistics statistics = SqlStatistics.current();
+    if (statistics != null) {
+      statistics.statementExecuted();
+    }
+  }
+
+  @Override
+  public void beforeMethod(MethodExecutionContext executionContext) {
+    SqlStatistics statistics = SqlStatistics.current();
+    if (statistics != null && isNext(executionContext)) {
+      statistics.callStarted();
+    }
+  }
+
+  @Override
+  public void afterMethod(MethodExecutionContext executionContext) {
+    SqlStatistics statistics = SqlStatistics.current();
+    if (statistics != null && isNext(executionContext)) {
+      statistics.rowFetched(Boolean.TRUE.equals(executionContext.getResult()));
+    }
+  }
+
+  private static boolean isNext(MethodExecutionContext executionContext) {
+    return executionContext.getTarget() instanceof ResultSet
+        && "next".equals(executionContext.getMethod().getName());
+  }
+}
@@ -1,16 +1,20 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import net.javaguides.springboot.model.id.EmployeeId;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Getter
@@ -18,16 +22,32 @@ import lombok.Setter;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+// Only takes effect when the second-level cache is switched on (l2cache profile)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Spring Data R2DBC mapping, used by ReactiveEmployeeRepository in the reactive profile
+@org.springframework.data.relational.core.mapping.Table("employees")
+@Table(name = "employees", indexes = {
+    @Index(name = Employee.EMAIL_UNIQUE_INDEX, columnList = "email", unique = true),
+    @Index(name = Employee.NAME_INDEX, columnList = "last_name, first_name")
+})
 public class Employee {
+  public static final String EMAIL_UNIQUE_INDEX = "uk_employees_email";
+  public static final String NAME_INDEX = "idx_employees_last_name_first_name";
+
+  // Protobuf field tags (see employees.proto): fixed here, as a renamed or reordered field must keep its tag
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @org.springframework.data.annotation.Id
+  @EmployeeId
+  @JsonProperty(index = 1)
   private long id;
   @Column(name = "first_name", nullable = false)
+  @JsonProperty(index = 2)
   private String firstName;
   @Column(name = "last_name", nullable = false)
-
+  @JsonProperty(index = 3)
   private String lastName;
   @Column(nullable = false)
+  @JsonProperty(index = 4)
   private String email;
 }
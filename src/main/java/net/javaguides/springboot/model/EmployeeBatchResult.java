@@ -0,0 +1,22 @@
+package net.javaguides.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeBatchResult {
+  public enum Status { CREATED, REJECTED }
+
+  private int index;
+  private Status status;
+  private Long id;
+  private String email;
+  private String reason;
+}
@@ -1,12 +1,19 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @AllArgsConstructor
+// Decoded by Jackson in every negotiated format
+@NoArgsConstructor
 public class EmployeeDto {
+  // Employee's protobuf tags, so a directory entry also decodes as an Employee with only the names set
+  @JsonProperty(index = 2)
   private String firstName;
+  @JsonProperty(index = 3)
   private String lastName;
 }
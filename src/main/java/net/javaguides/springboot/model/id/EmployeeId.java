@@ -0,0 +1,15 @@
+package net.javaguides.springboot.model.id;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+// Marks the employee primary key as generated by EmployeeIdGenerator. The strategy is picked in configuration, so
+// switching it does not touch the mapping
+@IdGeneratorType(EmployeeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface EmployeeId {
+}
@@ -0,0 +1,197 @@
+package net.javaguides.springboot.model.id;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.jdbc.AbstractReturningWork;
+import org.hibernate.mapping.Table;
+import org.hibernate.service.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Allocates employee ids before the insert so Hibernate can batch inserts, which IDENTITY columns prevent. The
+// strategy is chosen with the employee.id.* settings in application.properties. The first sequence id after a start
+// is checked against max(id), so a table that already holds IDENTITY or AUTO_INCREMENT rows keeps working without
+// setting the initial value by hand.
+public class EmployeeIdGenerator implements IdentifierGenerator {
+  public static final String PREFIX = "employee.id.";
+  public static final String SEQUENCE_NAME = "employees_seq";
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeIdGenerator.class);
+
+  private final SequenceStyleGenerator sequence;
+  private final TsidGenerator tsid;
+  private final Table table;
+  private String tableName;
+  private String idColumn;
+  private String sequenceName;
+  private String nextValue;
+  private volatile boolean seeded;
+
+  public EmployeeIdGenerator(EmployeeId config, Member member, CustomIdGeneratorCreationContext context) {
+    ServiceRegistry serviceRegistry = context.getServiceRegistry();
+    ConfigurationService settings = serviceRegistry.getService(ConfigurationService.class);
+    String strategy = setting(settings, "strategy", "sequence");
+    table = context.getPersistentClass().getTable();
+
+    switch (strategy) {
+      case "sequence" -> {
+        Properties params = new Properties();
+        params.put(IdentifierGenerator.ENTITY_NAME, context.getPersistentClass().getEntityName());
+        params.put(SequenceStyleGenerator.SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.put(OptimizableGenerator.OPT_PARAM, setting(settings, "optimizer", "pooled-lo"));
+        params.put(OptimizableGenerator.INCREMENT_PARAM, setting(settings, "increment-size", "100"));
+        params.put(OptimizableGenerator.INITIAL_PARAM, setting(settings, "initial-value", "1"));
+
+        sequence = new SequenceStyleGenerator();
+        sequence.configure(context.getProperty().getType(), params, serviceRegistry);
+        tsid = null;
+      }
+      case "tsid" -> {
+        sequence = null;
+        tsid = new TsidGenerator(Long.parseLong(setting(settings, "node", "0")));
+      }
+      default -> throw new IllegalArgumentException(
+          "Unknown " + PREFIX + "strategy '" + strategy + "', expected sequence or tsid");
+    }
+  }
+
+  private static String setting(ConfigurationService settings, String name, String defaultValue) {
+    return settings.getSetting(PREFIX + name, StandardConverters.STRING, defaultValue);
+  }
+
+  @Override
+  public void registerExportables(Database database) {
+    if (sequence != null) {
+      sequence.registerExportables(database);
+    }
+  }
+
+  @Override
+  public void initialize(SqlStringGenerationContext context) {
+    if (sequence != null) {
+      sequence.initialize(context);
+      tableName = context.format(table.getQualifiedTableName());
+      idColumn = table.getPrimaryKey().getColumn(0).getQuotedName(context.getDialect());
+      sequenceName = context.format(sequence.getDatabaseStructure().getPhysicalName());
+      if (sequence.getDatabaseStructure().isPhysicalSequence()) {
+        nextValue = context.getDialect().getSequenceSupport().getSequenceNextValString(sequenceName);
+      }
+    }
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object object) {
+    if (sequence == null) {
+      return tsid.next();
+    }
+    if (!seeded) {
+      return seedAndGenerate(session, object);
+    }
+    return sequence.generate(session, object);
+  }
+
+  // Once per start: rows inserted before the sequence existed (or by another strategy) may hold ids the sequence
+  // would hand out again. Either way the sequence is moved past max(id) in one step: the table behind employees_seq
+  // on MySQL by one update, a real sequence by one draw with its increment raised to the gap
+  private synchronized Object seedAndGenerate(SharedSessionContractImplementor session, Object object) {
+    if (seeded) {
+      return sequence.generate(session, object);
+    }
+    DatabaseStructure structure = sequence.getDatabaseStructure();
+    int incrementSize = structure.getIncrementSize();
+    long maxId = inIsolation(session, connection -> {
+      long max;
+      try (Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(
+              "select coalesce(max(" + idColumn + "), 0) from " + tableName)) {
+        resultSet.next();
+        max = resultSet.getLong(1);
+      }
+      if (!structure.isPhysicalSequence() && max > 0) {
+        // The pooled optimizer hands out the increment-size ids below the stored value, pooled-lo those from it
+        long floor = max + incrementSize + 1;
+        try (PreparedStatement update = connection.prepareStatement("update " + sequenceName + " set "
+            + SequenceStyleGenerator.DEF_VALUE_COLUMN + " = ? where " + SequenceStyleGenerator.DEF_VALUE_COLUMN
+            + " < ?")) {
+          update.setLong(1, floor);
+          update.setLong(2, floor);
+          update.executeUpdate();
+        }
+      }
+      return max;
+    });
+
+    Object id = sequence.generate(session, object);
+    if (((Number) id).longValue() <= maxId) {
+      if (!structure.isPhysicalSequence()) {
+        throw behind(maxId, null);
+      }
+      skipPast(session, maxId, incrementSize);
+      // What is left of the optimizer's current pool is dropped in memory; the next draw is past max(id)
+      for (int left = incrementSize; ((Number) id).longValue() <= maxId; left--) {
+        if (left < 0) {
+          throw behind(maxId, null);
+        }
+        id = sequence.generate(session, object);
+      }
+      log.warn("Moved {} past max({}) = {} in {}; set {}initial-value above it to start past it", sequenceName,
+          idColumn, maxId, tableName, PREFIX);
+    }
+    seeded = true;
+    return id;
+  }
+
+  // Raising the increment and drawing only ever moves the sequence forward, so instances starting together at
+  // worst skip more ids; none is handed out twice. A draw by another instance in between skips ahead as well
+  private void skipPast(SharedSessionContractImplementor session, long maxId, int incrementSize) {
+    try {
+      inIsolation(session, connection -> {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("alter sequence " + sequenceName + " increment by " + (maxId + incrementSize));
+          try {
+            statement.executeQuery(nextValue).close();
+          } finally {
+            statement.execute("alter sequence " + sequenceName + " increment by " + incrementSize);
+          }
+        }
+        return maxId;
+      });
+    } catch (RuntimeException e) {
+      throw behind(maxId, e);
+    }
+  }
+
+  private IllegalStateException behind(long maxId, Exception cause) {
+    return new IllegalStateException(sequenceName + " is behind max(" + idColumn + ") = " + maxId + " in "
+        + tableName + "; set " + PREFIX + "initial-value above it", cause);
+  }
+
+  private static long inIsolation(SharedSessionContractImplementor session, JdbcWork work) {
+    return session.getTransactionCoordinator().createIsolationDelegate()
+        .delegateWork(new AbstractReturningWork<Long>() {
+          @Override
+          public Long execute(Connection connection) throws SQLException {
+            return work.execute(connection);
+          }
+        }, true);
+  }
+
+  private interface JdbcWork {
+    long execute(Connection connection) throws SQLException;
+  }
+}
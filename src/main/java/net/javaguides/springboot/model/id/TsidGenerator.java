@@ -0,0 +1,34 @@
+package net.javaguides.springboot.model.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Time-ordered 64-bit ids: 42 bits of milliseconds since 2023-01-01, 10 bits of node id and a 12 bit
+// per-millisecond counter. Ids from one node are strictly increasing; distinct nodes never collide as long as each
+// one runs with its own node id
+public class TsidGenerator {
+  static final long EPOCH = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+  static final int NODE_BITS = 10;
+  static final int COUNTER_BITS = 12;
+  static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+  private final long node;
+  // Last issued (millis << COUNTER_BITS | counter); the counter overflowing simply borrows the next millisecond
+  private final AtomicLong lastTick = new AtomicLong();
+
+  public TsidGenerator(long node) {
+    if (node < 0 || node > MAX_NODE) {
+      throw new IllegalArgumentException("TSID node must be between 0 and " + MAX_NODE + ", was " + node);
+    }
+    this.node = node;
+  }
+
+  public long next() {
+    long now = (System.currentTimeMillis() - EPOCH) << COUNTER_BITS;
+    long tick = lastTick.updateAndGet(last -> Math.max(last + 1, now));
+
+    long millis = tick >>> COUNTER_BITS;
+    long counter = tick & ((1L << COUNTER_BITS) - 1);
+    return (millis << (NODE_BITS + COUNTER_BITS)) | (node << COUNTER_BITS) | counter;
+  }
+}
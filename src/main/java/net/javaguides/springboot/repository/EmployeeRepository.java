@@ -1,25 +1,118 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+  // The cacheable hints below are ignored unless hibernate.cache.use_query_cache is on (l2cache profile)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<Employee> findByEmail(String email);
 
+  @Query("select e.email from Employee e where e.email in :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  // Keyset page: seeks on the primary key instead of using OFFSET, so every page costs the same
+  @Query("select e from Employee e where e.id > :after order by e.id")
+  List<Employee> findPageAfter(@Param("after") long after, Pageable pageable);
+
+  // Id of the last row of the page that starts after the cursor, empty when that page is not full
+  @Query("select e.id from Employee e where e.id > :after order by e.id")
+  List<Long> findIdsAfter(@Param("after") long after, Pageable pageable);
+
+  // findPageAfter as a cursor, for writing a page out without holding all of it in memory
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select e from Employee e where e.id > :after order by e.id")
+  Stream<Employee> streamPageAfter(@Param("after") long after, Pageable pageable);
+
+  // Full-table cursor for exports: rows are fetched in chunks and must be consumed inside a transaction
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select e from Employee e order by e.id")
+  Stream<Employee> streamAll();
+
+  // Directory reads: constructor projections select only the name columns and create no managed entities,
+  // so there are no persistence-context snapshots to keep or dirty-check
+  @Query("select new net.javaguides.springboot.model.EmployeeDto(e.firstName, e.lastName) "
+      + "from Employee e where e.id > :after order by e.id")
+  List<EmployeeDto> findDirectoryPageAfter(@Param("after") long after, Pageable pageable);
+
+  @Query("select new net.javaguides.springboot.model.EmployeeDto(e.firstName, e.lastName) "
+      + "from Employee e where e.id = :id")
+  Optional<EmployeeDto> findDirectoryEntryById(@Param("id") long id);
+
+  // Answered from idx_employees_last_name_first_name alone, without reading the table rows
+  @Query("select new net.javaguides.springboot.model.EmployeeDto(e.firstName, e.lastName) "
+      + "from Employee e where e.lastName = :lastName order by e.firstName")
+  List<EmployeeDto> findDirectoryByLastName(@Param("lastName") String lastName, Pageable pageable);
+
+  // Partial update in one statement without loading the row; null arguments keep the current value
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update Employee e set e.firstName = coalesce(:firstName, e.firstName), "
+      + "e.lastName = coalesce(:lastName, e.lastName), e.email = coalesce(:email, e.email) "
+      + "where e.id = :id")
+  int patchEmployee(@Param("id") long id, @Param("firstName") String firstName,
+      @Param("lastName") String lastName, @Param("email") String email);
+
+  // Full replacement in one statement; save() would read a detached employee back in before writing it
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("update Employee e set e.firstName = :firstName, e.lastName = :lastName, e.email = :email "
+      + "where e.id = :id")
+  int replaceEmployee(@Param("id") long id, @Param("firstName") String firstName,
+      @Param("lastName") String lastName, @Param("email") String email);
+
+  // Unlike deleteById these do not load the entities first; the row count tells whether anything matched
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("delete from Employee e where e.id = :id")
+  int deleteEmployeeById(@Param("id") long id);
+
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("delete from Employee e where e.id in :ids")
+  int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
   Employee findByJPQL(String firstName, String lastName);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query("select e from Employee e where e.firstName =:firstName and e.lastName =:lastName ")
   Employee findByJPQLNamedParam(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+  // Native queries name their table so that writes to employees invalidate their cached results
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+  })
   @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2", nativeQuery = true)
   Employee findByNativeSQL(String firstName, String lastName);
 
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+  })
   @Query(value = "select * from employees e where e.first_name =:firstName and e.last_name =:lastName", nativeQuery = true)
   Employee findByNativeSQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 }
@@ -0,0 +1,59 @@
+package net.javaguides.springboot.repository;
+
+import java.util.Collection;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// R2DBC counterpart of EmployeeRepository for the reactive profile; queries are SQL against the same table.
+// Employee is an @Entity, so repository scanning would hand this interface to JPA as well: it is excluded
+// from scanning and created by ReactiveConfig instead.
+@NoRepositoryBean
+public interface ReactiveEmployeeRepository extends R2dbcRepository<Employee, Long> {
+  Mono<Employee> findByEmail(String email);
+
+  @Query("select email from employees where email in (:emails)")
+  Flux<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  @Query("select * from employees where id > :after order by id limit :limit")
+  Flux<Employee> findPageAfter(@Param("after") long after, @Param("limit") int limit);
+
+  // Id of the row at position :offset after the cursor, empty when there are not that many rows left
+  @Query("select id from employees where id > :after order by id limit 1 offset :offset")
+  Mono<Long> findIdAfter(@Param("after") long after, @Param("offset") int offset);
+
+  @Query("select * from employees order by id")
+  Flux<Employee> streamAll();
+
+  @Modifying
+  @Query("update employees set first_name = :firstName, last_name = :lastName, email = :email where id = :id")
+  Mono<Integer> replaceEmployee(@Param("id") long id, @Param("firstName") String firstName,
+      @Param("lastName") String lastName, @Param("email") String email);
+
+  @Modifying
+  @Query("update employees set first_name = coalesce(:firstName, first_name), "
+      + "last_name = coalesce(:lastName, last_name), email = coalesce(:email, email) "
+      + "where id = :id")
+  Mono<Integer> patchEmployee(@Param("id") long id, @Param("firstName") String firstName,
+      @Param("lastName") String lastName, @Param("email") String email);
+
+  @Modifying
+  @Query("delete from employees where id = :id")
+  Mono<Integer> deleteEmployeeById(@Param("id") long id);
+
+  @Modifying
+  @Query("delete from employees where id in (:ids)")
+  Mono<Integer> deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+  // Covers findByJPQL and findByJPQLNamedParam; there is no JPQL on R2DBC
+  Mono<Employee> findByFirstNameAndLastName(String firstName, String lastName);
+
+  @Query("select * from employees e where e.first_name = :firstName and e.last_name = :lastName")
+  Mono<Employee> findByNativeSQLNamedParameters(@Param("firstName") String firstName,
+      @Param("lastName") String lastName);
+}
@@ -0,0 +1,108 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Append-only log of every write, in segments employees-<n>.log. A snapshot rolls to a new segment and, once it is
+// on disk, deletes the segments it covers. Appends reach the OS page cache before the write returns, which survives
+// a crash of the process; with fsync each append is also forced to the device, which survives losing the machine
+final class EmployeeChangeLog implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(EmployeeChangeLog.class);
+  private static final Pattern SEGMENT = Pattern.compile("employees-(\\d+)\\.log");
+
+  private final Path directory;
+  private final boolean fsync;
+  private long segment;
+  private FileChannel channel;
+
+  EmployeeChangeLog(Path directory, long segment, boolean fsync) throws IOException {
+    this.directory = directory;
+    this.fsync = fsync;
+    this.segment = segment;
+    this.channel = open(segment);
+  }
+
+  synchronized void append(ByteBuffer record) throws IOException {
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+    if (fsync) {
+      channel.force(false);
+    }
+  }
+
+  // Later appends go to a new segment; returns the number of the one closed
+  synchronized long roll() throws IOException {
+    channel.force(false);
+    channel.close();
+    long closed = segment;
+    channel = open(++segment);
+    return closed;
+  }
+
+  void deleteSegmentsUpTo(long last) throws IOException {
+    for (long number : segments(directory)) {
+      if (number <= last) {
+        Files.deleteIfExists(segmentFile(directory, number));
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.force(false);
+    channel.close();
+  }
+
+  // Replays the segments after the given one, oldest first, and cuts off a torn tail. Returns the highest segment
+  // number found, or after when there is none
+  static long replay(Path directory, long after, EmployeeRecords.Replay replay) throws IOException {
+    long last = after;
+    for (long number : segments(directory)) {
+      if (number <= after) {
+        continue;
+      }
+      try (FileChannel segmentChannel = FileChannel.open(segmentFile(directory, number),
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        long end = EmployeeRecords.read(segmentChannel, 0, replay);
+        if (end < segmentChannel.size()) {
+          log.warn("Dropping {} bytes of an incomplete write at the end of change log segment {}",
+              segmentChannel.size() - end, number);
+          segmentChannel.truncate(end);
+        }
+      }
+      last = number;
+    }
+    return last;
+  }
+
+  private static List<Long> segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> SEGMENT.matcher(file.getFileName().toString()))
+          .filter(Matcher::matches)
+          .map(matcher -> Long.parseLong(matcher.group(1)))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private FileChannel open(long number) throws IOException {
+    return FileChannel.open(segmentFile(directory, number),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private static Path segmentFile(Path directory, long number) {
+    return directory.resolve(String.format("employees-%019d.log", number));
+  }
+}
@@ -0,0 +1,140 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Binary records shared by the change log and snapshots: [payload length][CRC32C of payload][payload], where the
+// payload is an operation byte, the id and, for PUT, first name, last name and email as length-prefixed UTF-8.
+// PUT_ALL holds the number of rows where the id goes, then each row's id and columns as PUT has them.
+// Files are read through memory-mapped windows, so neither replay nor snapshot load copies them onto the heap
+final class EmployeeRecords {
+  static final int HEADER = 8;
+  static final int WINDOW = 16 * 1024 * 1024;
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte PUT_ALL = 3;
+  private static final int MIN_PAYLOAD = 1 + Long.BYTES;
+
+  interface Replay {
+    void put(EmployeeRow row);
+
+    void delete(long id);
+  }
+
+  private EmployeeRecords() {
+  }
+
+  static ByteBuffer put(EmployeeRow row) {
+    byte[] firstName = row.firstName().getBytes(StandardCharsets.UTF_8);
+    byte[] lastName = row.lastName().getBytes(StandardCharsets.UTF_8);
+    byte[] email = row.email().getBytes(StandardCharsets.UTF_8);
+    int length = MIN_PAYLOAD + 3 * Integer.BYTES + firstName.length + lastName.length + email.length;
+    ByteBuffer record = ByteBuffer.allocate(HEADER + length).putInt(length).putInt(0)
+        .put(PUT).putLong(row.id())
+        .putInt(firstName.length).put(firstName)
+        .putInt(lastName.length).put(lastName)
+        .putInt(email.length).put(email);
+    return seal(record);
+  }
+
+  // Several rows under one checksum: a crash in the middle of the append loses all of them, never some
+  static ByteBuffer putAll(List<EmployeeRow> rows) {
+    byte[][] columns = new byte[rows.size() * 3][];
+    int length = MIN_PAYLOAD + rows.size() * (Long.BYTES + 3 * Integer.BYTES);
+    for (int i = 0; i < rows.size(); i++) {
+      EmployeeRow row = rows.get(i);
+      columns[3 * i] = row.firstName().getBytes(StandardCharsets.UTF_8);
+      columns[3 * i + 1] = row.lastName().getBytes(StandardCharsets.UTF_8);
+      columns[3 * i + 2] = row.email().getBytes(StandardCharsets.UTF_8);
+      length += columns[3 * i].length + columns[3 * i + 1].length + columns[3 * i + 2].length;
+    }
+    ByteBuffer record = ByteBuffer.allocate(HEADER + length).putInt(length).putInt(0)
+        .put(PUT_ALL).putLong(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      record.putLong(rows.get(i).id());
+      for (int column = 3 * i; column < 3 * i + 3; column++) {
+        record.putInt(columns[column].length).put(columns[column]);
+      }
+    }
+    return seal(record);
+  }
+
+  static ByteBuffer delete(long id) {
+    ByteBuffer record = ByteBuffer.allocate(HEADER + MIN_PAYLOAD).putInt(MIN_PAYLOAD).putInt(0)
+        .put(DELETE).putLong(id);
+    return seal(record);
+  }
+
+  // Replays the records from position on and returns the offset after the last whole one. Stops early at a record
+  // cut short or failing its checksum: the tail a crash in the middle of an append leaves behind
+  static long read(FileChannel channel, long position, Replay replay) throws IOException {
+    long size = channel.size();
+    MappedByteBuffer window = null;
+    long windowStart = position;
+    while (position + HEADER <= size) {
+      if (window == null || position + HEADER > windowStart + window.limit()) {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+      }
+      int offset = (int) (position - windowStart);
+      int length = window.getInt(offset);
+      int checksum = window.getInt(offset + Integer.BYTES);
+      if (length < MIN_PAYLOAD || position + HEADER + length > size) {
+        break;
+      }
+      if (offset + HEADER + length > window.limit()) {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            Math.min(Math.max(WINDOW, HEADER + length), size - position));
+        offset = 0;
+      }
+      ByteBuffer payload = window.slice(offset + HEADER, length);
+      if (checksum(payload.duplicate()) != checksum) {
+        break;
+      }
+      decode(payload, replay);
+      position += HEADER + length;
+    }
+    return position;
+  }
+
+  private static void decode(ByteBuffer payload, Replay replay) {
+    byte operation = payload.get();
+    if (operation == PUT_ALL) {
+      for (long count = payload.getLong(); count > 0; count--) {
+        replay.put(new EmployeeRow(payload.getLong(), string(payload), string(payload), string(payload)));
+      }
+      return;
+    }
+    long id = payload.getLong();
+    if (operation == DELETE) {
+      replay.delete(id);
+    } else {
+      replay.put(new EmployeeRow(id, string(payload), string(payload), string(payload)));
+    }
+  }
+
+  private static String string(ByteBuffer payload) {
+    byte[] bytes = new byte[payload.getInt()];
+    payload.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuffer seal(ByteBuffer record) {
+    record.flip();
+    record.putInt(Integer.BYTES, checksum(record.slice(HEADER, record.limit() - HEADER)));
+    return record;
+  }
+
+  private static int checksum(ByteBuffer payload) {
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+}
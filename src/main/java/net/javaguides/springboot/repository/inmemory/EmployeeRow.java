@@ -0,0 +1,21 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+
+// Stored form of an employee. Immutable, so readers can copy it out under a read lock while writers swap rows
+record EmployeeRow(long id, String firstName, String lastName, String email) {
+
+  static EmployeeRow of(long id, Employee employee) {
+    return new EmployeeRow(id, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+  }
+
+  // A new Employee per call: callers may change it, as they may a detached entity, without touching the store
+  Employee toEmployee() {
+    return new Employee(id, firstName, lastName, email);
+  }
+
+  EmployeeDto toDto() {
+    return new EmployeeDto(firstName, lastName);
+  }
+}
@@ -0,0 +1,92 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+// employees.snapshot: a header (magic, version, the last change log segment it covers, the next free id) followed
+// by one PUT record per employee. Written through memory-mapped windows to a temporary file that is forced to
+// disk and then renamed over the previous snapshot, so a crash leaves either the old snapshot or the new one
+final class EmployeeSnapshot {
+  static final String FILE_NAME = "employees.snapshot";
+
+  private static final int MAGIC = 0x454d5053;
+  private static final int VERSION = 1;
+  private static final int HEADER = 2 * Integer.BYTES + 2 * Long.BYTES;
+
+  record Header(long segment, long nextId) {
+  }
+
+  private EmployeeSnapshot() {
+  }
+
+  static void write(Path directory, long segment, long nextId, Collection<EmployeeRow> rows) throws IOException {
+    Path temporary = directory.resolve(FILE_NAME + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).putLong(segment).putLong(nextId);
+      channel.write(header.flip(), 0);
+
+      long position = HEADER;
+      MappedByteBuffer window = null;
+      for (EmployeeRow row : rows) {
+        ByteBuffer record = EmployeeRecords.put(row);
+        if (window == null || record.remaining() > window.remaining()) {
+          if (window != null) {
+            window.force();
+          }
+          window = channel.map(FileChannel.MapMode.READ_WRITE, position,
+              Math.max(EmployeeRecords.WINDOW, record.remaining()));
+        }
+        position += record.remaining();
+        window.put(record);
+      }
+      if (window != null) {
+        window.force();
+      }
+      // Mapping the last window grew the file past the last record
+      channel.truncate(position);
+      channel.force(true);
+    }
+    Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    forceDirectory(directory);
+  }
+
+  // Loads the snapshot into replay; null when there is none yet
+  static Header read(Path directory, EmployeeRecords.Replay replay) throws IOException {
+    Path file = directory.resolve(FILE_NAME);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER);
+      channel.read(header, 0);
+      header.flip();
+      if (header.remaining() < HEADER || header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new IOException(file + " is not an employee snapshot");
+      }
+      Header read = new Header(header.getLong(), header.getLong());
+      long end = EmployeeRecords.read(channel, HEADER, replay);
+      if (end != channel.size()) {
+        throw new IOException(file + " is corrupt at offset " + end);
+      }
+      return read;
+    }
+  }
+
+  // Makes the rename durable; not every platform can open a directory for this
+  private static void forceDirectory(Path directory) {
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // the rename is still atomic, only possibly not yet on disk
+    }
+  }
+}
@@ -0,0 +1,508 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+// The EmployeeRepository queries answered from memory, for the inmemory profile (InMemoryEmployeeServiceImpl).
+//  - rows live in LongMaps keyed by the primitive id, split over lock stripes: writes to different stripes run in
+//    parallel, reads take their stripe's read lock only
+//  - hash indexes on email (unique, like uk_employees_email) and on last name then first name; an ordered set of
+//    ids serves the keyset pages
+//  - with a directory, every write is appended to an EmployeeChangeLog before it is applied, and every
+//    snapshot-interval the rows are written to an EmployeeSnapshot and the log segments it covers are dropped.
+//    Opening the directory loads the snapshot and replays the log after it
+// Rows come back as new Employee instances each time, so callers cannot change the store by changing them.
+public class InMemoryEmployeeRepository implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(InMemoryEmployeeRepository.class);
+
+  private final Stripe[] stripes;
+  private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+  private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
+  // last name -> first name -> ids; all changes under one last name go through compute on that key
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, Set<Long>>> nameIndex =
+      new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong(1);
+  // Writers share it, a snapshot takes it exclusively for the moment it rolls the log and copies the rows
+  private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+  private final AtomicLong writesSinceSnapshot = new AtomicLong();
+  private final Path directory;
+  private final EmployeeChangeLog changeLog;
+  private final ScheduledExecutorService snapshotScheduler;
+
+  // Kept in memory only
+  public InMemoryEmployeeRepository(int stripeCount) {
+    this.stripes = stripes(stripeCount);
+    this.directory = null;
+    this.changeLog = null;
+    this.snapshotScheduler = null;
+  }
+
+  public InMemoryEmployeeRepository(Path directory, int stripeCount, Duration snapshotInterval, boolean fsync)
+      throws IOException {
+    this.stripes = stripes(stripeCount);
+    this.directory = Files.createDirectories(directory);
+    long segment = recover();
+    this.changeLog = new EmployeeChangeLog(directory, segment + 1, fsync);
+    if (snapshotInterval.isZero()) {
+      this.snapshotScheduler = null;
+    } else {
+      this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "employee-snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+      long millis = snapshotInterval.toMillis();
+      snapshotScheduler.scheduleWithFixedDelay(this::scheduledSnapshot, millis, millis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  // A new employee (id 0, or an id that is not stored) gets the next free id, set on the given instance as JPA
+  // does; an existing one is replaced
+  public Employee save(Employee employee) {
+    requireColumns(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+    long id = employee.getId();
+    if (id != 0 && write(id, current -> current == null ? null : EmployeeRow.of(id, employee))) {
+      return employee;
+    }
+    long newId = nextId.getAndIncrement();
+    write(newId, current -> EmployeeRow.of(newId, employee));
+    employee.setId(newId);
+    return employee;
+  }
+
+  // New employees stored together: every email is claimed before anything is written, and the rows go to the
+  // change log as one record, so either all of them are stored, now and after a restart, or none is. Readers may
+  // see the rows appear one by one, as they see deleteEmployeesByIds remove them. Ids are set as save sets them
+  public List<Employee> insertAll(List<Employee> employees) {
+    if (employees.isEmpty()) {
+      return employees;
+    }
+    for (Employee employee : employees) {
+      requireColumns(employee.getFirstName(), employee.getLastName(), employee.getEmail());
+    }
+    long firstId = nextId.getAndAdd(employees.size());
+    List<EmployeeRow> rows = new ArrayList<>(employees.size());
+    for (int i = 0; i < employees.size(); i++) {
+      rows.add(EmployeeRow.of(firstId + i, employees.get(i)));
+    }
+
+    snapshotLock.readLock().lock();
+    try {
+      int claimed = 0;
+      try {
+        for (; claimed < rows.size(); claimed++) {
+          EmployeeRow row = rows.get(claimed);
+          if (emailIndex.putIfAbsent(row.email(), row.id()) != null) {
+            throw duplicateEmail(row.email());
+          }
+        }
+        if (changeLog != null) {
+          changeLog.append(EmployeeRecords.putAll(rows));
+        }
+      } catch (DuplicateKeyException e) {
+        releaseEmails(rows.subList(0, claimed));
+        throw e;
+      } catch (IOException e) {
+        releaseEmails(rows);
+        throw new DataAccessResourceFailureException("Could not append to the employee change log", e);
+      }
+      writesSinceSnapshot.incrementAndGet();
+
+      for (EmployeeRow row : rows) {
+        Stripe stripe = stripe(row.id());
+        stripe.lock.writeLock().lock();
+        try {
+          stripe.rows.put(row.id(), row);
+          ids.add(row.id());
+          indexName(row);
+        } finally {
+          stripe.lock.writeLock().unlock();
+        }
+      }
+    } finally {
+      snapshotLock.readLock().unlock();
+    }
+    for (int i = 0; i < employees.size(); i++) {
+      employees.get(i).setId(rows.get(i).id());
+    }
+    return employees;
+  }
+
+  public Optional<Employee> findById(long id) {
+    return Optional.ofNullable(row(id)).map(EmployeeRow::toEmployee);
+  }
+
+  public Optional<Employee> findByEmail(String email) {
+    Long id = emailIndex.get(email);
+    EmployeeRow row = id == null ? null : row(id);
+    // The row may have changed its email since the index was read
+    return row != null && row.email().equals(email) ? Optional.of(row.toEmployee()) : Optional.empty();
+  }
+
+  public List<String> findExistingEmails(Collection<String> emails) {
+    return emails.stream().distinct().filter(email -> findByEmail(email).isPresent()).toList();
+  }
+
+  public List<Employee> findByFirstNameAndLastName(String firstName, String lastName) {
+    Map<String, Set<Long>> firstNames = nameIndex.get(lastName);
+    Set<Long> matches = firstNames == null ? null : firstNames.get(firstName);
+    if (matches == null) {
+      return List.of();
+    }
+    List<Employee> employees = new ArrayList<>(matches.size());
+    for (long id : matches) {
+      EmployeeRow row = row(id);
+      if (row != null && row.firstName().equals(firstName) && row.lastName().equals(lastName)) {
+        employees.add(row.toEmployee());
+      }
+    }
+    employees.sort(Comparator.comparingLong(Employee::getId));
+    return employees;
+  }
+
+  public List<Employee> findAll() {
+    return findPageAfter(Long.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  public List<Employee> findPageAfter(long after, int limit) {
+    List<Employee> page = new ArrayList<>(Math.min(limit, 1024));
+    forEachAfter(after, limit, page::add);
+    return page;
+  }
+
+  // Id of the last row of the page that starts after the cursor, empty when that page is not full
+  public Optional<Long> findPageEndAfter(long after, int limit) {
+    int seen = 0;
+    for (long id : ids.tailSet(after, false)) {
+      if (++seen == limit) {
+        return Optional.of(id);
+      }
+    }
+    return Optional.empty();
+  }
+
+  // Rows after the cursor in id order, one at a time, without collecting the page first
+  public void forEachAfter(long after, int limit, Consumer<Employee> consumer) {
+    int count = 0;
+    for (long id : ids.tailSet(after, false)) {
+      if (count == limit) {
+        break;
+      }
+      EmployeeRow row = row(id);
+      if (row != null) {
+        consumer.accept(row.toEmployee());
+        count++;
+      }
+    }
+  }
+
+  public List<EmployeeDto> findDirectoryPageAfter(long after, int limit) {
+    List<EmployeeDto> page = new ArrayList<>(Math.min(limit, 1024));
+    for (long id : ids.tailSet(after, false)) {
+      if (page.size() == limit) {
+        break;
+      }
+      EmployeeRow row = row(id);
+      if (row != null) {
+        page.add(row.toDto());
+      }
+    }
+    return page;
+  }
+
+  public Optional<EmployeeDto> findDirectoryEntryById(long id) {
+    return Optional.ofNullable(row(id)).map(EmployeeRow::toDto);
+  }
+
+  // Straight from the name index; rows are only read to drop ids whose name changed meanwhile
+  public List<EmployeeDto> findDirectoryByLastName(String lastName, int limit) {
+    Map<String, Set<Long>> firstNames = nameIndex.get(lastName);
+    if (firstNames == null) {
+      return List.of();
+    }
+    List<EmployeeDto> entries = new ArrayList<>();
+    firstNames.keySet().stream().sorted().forEach(firstName -> {
+      for (long id : firstNames.getOrDefault(firstName, Set.of())) {
+        EmployeeRow row = row(id);
+        if (entries.size() < limit && row != null && row.firstName().equals(firstName)
+            && row.lastName().equals(lastName)) {
+          entries.add(row.toDto());
+        }
+      }
+    });
+    return entries;
+  }
+
+  public long count() {
+    return ids.size();
+  }
+
+  // Null arguments keep the current value; returns the number of rows changed, as the JPA update does
+  public int patchEmployee(long id, String firstName, String lastName, String email) {
+    return write(id, current -> current == null ? null : new EmployeeRow(id,
+        firstName == null ? current.firstName() : firstName,
+        lastName == null ? current.lastName() : lastName,
+        email == null ? current.email() : email)) ? 1 : 0;
+  }
+
+  public int replaceEmployee(long id, String firstName, String lastName, String email) {
+    requireColumns(firstName, lastName, email);
+    return write(id, current -> current == null ? null : new EmployeeRow(id, firstName, lastName, email)) ? 1 : 0;
+  }
+
+  public int deleteEmployeeById(long id) {
+    return write(id, current -> null) ? 1 : 0;
+  }
+
+  public int deleteEmployeesByIds(Collection<Long> ids) {
+    int deleted = 0;
+    for (long id : Set.copyOf(ids)) {
+      deleted += deleteEmployeeById(id);
+    }
+    return deleted;
+  }
+
+  public void deleteAll() {
+    for (long id : ids) {
+      deleteEmployeeById(id);
+    }
+  }
+
+  // Writes the rows to a new snapshot and drops the change log it makes redundant. Writers wait only while the
+  // log rolls over and the row references are copied, not while the file is written
+  public synchronized void snapshot() throws IOException {
+    if (changeLog == null || writesSinceSnapshot.get() == 0) {
+      return;
+    }
+    long segment;
+    long snapshotNextId;
+    List<EmployeeRow> rows = new ArrayList<>(ids.size());
+    snapshotLock.writeLock().lock();
+    try {
+      segment = changeLog.roll();
+      for (Stripe stripe : stripes) {
+        stripe.rows.forEach(rows::add);
+      }
+      snapshotNextId = nextId.get();
+      writesSinceSnapshot.set(0);
+    } finally {
+      snapshotLock.writeLock().unlock();
+    }
+    long started = System.nanoTime();
+    EmployeeSnapshot.write(directory, segment, snapshotNextId, rows);
+    changeLog.deleteSegmentsUpTo(segment);
+    log.debug("Snapshot of {} employees written in {} ms", rows.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+
+  // Stops the snapshots, writes a last one so the next start has no log to replay, and closes the log
+  @Override
+  public void close() throws IOException {
+    if (snapshotScheduler != null) {
+      snapshotScheduler.shutdown();
+      try {
+        snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (changeLog != null) {
+      snapshot();
+      changeLog.close();
+    }
+  }
+
+  private void scheduledSnapshot() {
+    try {
+      snapshot();
+    } catch (IOException | RuntimeException e) {
+      // The change log still holds every write; the next attempt covers them too
+      log.warn("Employee snapshot failed: {}", e.toString());
+    }
+  }
+
+  private EmployeeRow row(long id) {
+    Stripe stripe = stripe(id);
+    stripe.lock.readLock().lock();
+    try {
+      return stripe.rows.get(id);
+    } finally {
+      stripe.lock.readLock().unlock();
+    }
+  }
+
+  // Replaces the row with change(current row), null meaning no row. Returning the current row unchanged writes
+  // nothing. The email is claimed in the index first, which decides between concurrent writers in any stripes;
+  // the log append comes next and only then the rows and the other indexes change
+  private boolean write(long id, UnaryOperator<EmployeeRow> change) {
+    Stripe stripe = stripe(id);
+    snapshotLock.readLock().lock();
+    stripe.lock.writeLock().lock();
+    try {
+      EmployeeRow current = stripe.rows.get(id);
+      EmployeeRow next = change.apply(current);
+      if (next == current) {
+        return false;
+      }
+      boolean emailChanged = next != null && (current == null || !current.email().equals(next.email()));
+      if (emailChanged && emailIndex.putIfAbsent(next.email(), id) != null) {
+        throw duplicateEmail(next.email());
+      }
+      try {
+        if (changeLog != null) {
+          changeLog.append(next == null ? EmployeeRecords.delete(id) : EmployeeRecords.put(next));
+        }
+      } catch (IOException e) {
+        if (emailChanged) {
+          emailIndex.remove(next.email(), id);
+        }
+        throw new DataAccessResourceFailureException("Could not append to the employee change log", e);
+      }
+      writesSinceSnapshot.incrementAndGet();
+
+      if (next == null) {
+        stripe.rows.remove(id);
+        ids.remove(id);
+      } else {
+        stripe.rows.put(id, next);
+        ids.add(id);
+      }
+      if (current != null && (next == null || !current.email().equals(next.email()))) {
+        emailIndex.remove(current.email(), id);
+      }
+      if (current == null || next == null || !current.firstName().equals(next.firstName())
+          || !current.lastName().equals(next.lastName())) {
+        if (current != null) {
+          unindexName(current);
+        }
+        if (next != null) {
+          indexName(next);
+        }
+      }
+      return true;
+    } finally {
+      stripe.lock.writeLock().unlock();
+      snapshotLock.readLock().unlock();
+    }
+  }
+
+  private void releaseEmails(List<EmployeeRow> rows) {
+    for (EmployeeRow row : rows) {
+      emailIndex.remove(row.email(), row.id());
+    }
+  }
+
+  private void indexName(EmployeeRow row) {
+    nameIndex.compute(row.lastName(), (lastName, firstNames) -> {
+      ConcurrentHashMap<String, Set<Long>> names = firstNames == null ? new ConcurrentHashMap<>() : firstNames;
+      names.computeIfAbsent(row.firstName(), firstName -> ConcurrentHashMap.newKeySet()).add(row.id());
+      return names;
+    });
+  }
+
+  private void unindexName(EmployeeRow row) {
+    nameIndex.computeIfPresent(row.lastName(), (lastName, firstNames) -> {
+      firstNames.computeIfPresent(row.firstName(), (firstName, matches) -> {
+        matches.remove(row.id());
+        return matches.isEmpty() ? null : matches;
+      });
+      return firstNames.isEmpty() ? null : firstNames;
+    });
+  }
+
+  // Snapshot first, then the log segments after it, into one map; the indexes are built from the result, so
+  // replay order between different ids does not matter. Returns the last segment seen
+  private long recover() throws IOException {
+    long started = System.nanoTime();
+    LongMap<EmployeeRow> recovered = new LongMap<>(1024);
+    long[] maxId = {0};
+    EmployeeRecords.Replay replay = new EmployeeRecords.Replay() {
+      @Override
+      public void put(EmployeeRow row) {
+        recovered.put(row.id(), row);
+        maxId[0] = Math.max(maxId[0], row.id());
+      }
+
+      @Override
+      public void delete(long id) {
+        recovered.remove(id);
+      }
+    };
+
+    EmployeeSnapshot.Header snapshot = EmployeeSnapshot.read(directory, replay);
+    long snapshotSegment = snapshot == null ? 0 : snapshot.segment();
+    long segment = EmployeeChangeLog.replay(directory, snapshotSegment, replay);
+    nextId.set(Math.max(snapshot == null ? 1 : snapshot.nextId(), maxId[0] + 1));
+
+    recovered.forEach(row -> {
+      stripe(row.id()).rows.put(row.id(), row);
+      ids.add(row.id());
+      emailIndex.put(row.email(), row.id());
+      indexName(row);
+    });
+    // Everything replayed is in memory now; the first snapshot rewrites it even if nothing else changes
+    writesSinceSnapshot.set(segment > snapshotSegment ? 1 : 0);
+    log.info("Loaded {} employees from {} in {} ms", recovered.size(), directory,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    return segment;
+  }
+
+  private Stripe stripe(long id) {
+    // Other bits than LongMap uses for its slots, so a stripe's ids still spread over its table
+    return stripes[(int) ((id * 0xC2B2AE3D27D4EB4FL) >>> 40) & (stripes.length - 1)];
+  }
+
+  private static Stripe[] stripes(int stripeCount) {
+    if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+      throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+    }
+    Stripe[] stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe();
+    }
+    return stripes;
+  }
+
+  // Worded as MySQL words it, so EmployeeServiceImpl.translateDuplicateEmail recognises it
+  private static DuplicateKeyException duplicateEmail(String email) {
+    return new DuplicateKeyException("Duplicate entry '" + email + "' for key '" + Employee.EMAIL_UNIQUE_INDEX + "'");
+  }
+
+  // The columns are not null in the JPA mapping either
+  private static void requireColumns(String firstName, String lastName, String email) {
+    if (firstName == null || lastName == null || email == null) {
+      throw new DataIntegrityViolationException("First name, last name and email are required");
+    }
+  }
+
+  private static final class Stripe {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongMap<EmployeeRow> rows = new LongMap<>(64);
+  }
+}
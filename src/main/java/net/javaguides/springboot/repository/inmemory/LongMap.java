@@ -0,0 +1,119 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.util.function.Consumer;
+
+// Open-addressing hash map from primitive long keys to non-null values: no Long boxing and no entry objects, one
+// long[] and one Object[] probed linearly. Not thread-safe; InMemoryEmployeeRepository guards each one with a lock
+final class LongMap<V> {
+  private static final float LOAD_FACTOR = 0.6f;
+
+  private long[] keys;
+  private Object[] values;
+  private int size;
+  private int resizeAt;
+
+  LongMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    allocate(capacity);
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(long key) {
+    int mask = keys.length - 1;
+    for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  V put(long key, V value) {
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    for (; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > resizeAt) {
+      resize();
+    }
+    return null;
+  }
+
+  // Backward-shift deletion: later entries of the probe chain move up, so lookups need no tombstones
+  @SuppressWarnings("unchecked")
+  V remove(long key) {
+    int mask = keys.length - 1;
+    int slot = slot(key, mask);
+    for (; values[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        break;
+      }
+    }
+    V previous = (V) values[slot];
+    if (previous == null) {
+      return null;
+    }
+    int gap = slot;
+    for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+      int home = slot(keys[next], mask);
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    values[gap] = null;
+    size--;
+    return previous;
+  }
+
+  @SuppressWarnings("unchecked")
+  void forEach(Consumer<? super V> action) {
+    for (Object value : values) {
+      if (value != null) {
+        action.accept((V) value);
+      }
+    }
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(keys.length << 1);
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slot(oldKeys[i], mask);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    resizeAt = (int) (capacity * LOAD_FACTOR);
+  }
+
+  // Sequential ids would otherwise fill one run of neighbouring slots
+  private static int slot(long key, int mask) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
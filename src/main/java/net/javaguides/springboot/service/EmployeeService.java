@@ -1,13 +1,27 @@
 package net.javaguides.springboot.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeDto;
 
 public interface EmployeeService {
   Employee saveEmployee(Employee employee);
+  List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
   List<Employee> getAllEmployees();
+  List<Employee> getEmployeesAfter(long after, int limit);
+  void exportEmployees(Consumer<Employee> consumer);
+  List<Employee> getEmployeesByIds(Collection<Long> ids);
+  List<EmployeeDto> getDirectoryAfter(long after, int limit, LongConsumer nextCursor);
+  Optional<EmployeeDto> getDirectoryEntry(long id);
+  List<EmployeeDto> getDirectoryByLastName(String lastName, int limit);
   Optional<Employee> getEmployeeById(Long id);
-  Employee updateEmployee(Employee employee);
-  void deleteEmployee(long id);
+  Optional<Employee> updateEmployee(Employee employee);
+  boolean patchEmployee(long id, Employee changes);
+  boolean deleteEmployee(long id);
+  int deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package net.javaguides.springboot.service;
+
+import java.util.Collection;
+import java.util.List;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+  Mono<Employee> saveEmployee(Employee employee);
+  Flux<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+  Flux<Employee> getEmployeesAfter(long after, int limit);
+  Mono<Long> getNextCursor(long after, int limit);
+  Flux<Employee> exportEmployees();
+  Mono<Employee> getEmployeeById(long id);
+  Mono<Employee> updateEmployee(Employee employee);
+  Mono<Boolean> patchEmployee(long id, Employee changes);
+  Mono<Boolean> deleteEmployee(long id);
+  Mono<Integer> deleteEmployees(Collection<Long> ids);
+}
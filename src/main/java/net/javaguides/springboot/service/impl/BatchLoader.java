@@ -0,0 +1,112 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Keys requested by concurrent callers within window (or until maxBatchSize distinct keys) are loaded with one
+// call. The caller that opens a batch waits out the window only while another load is in flight, so a lone
+// caller is not delayed; it then runs the load on its own thread and the others wait for their value. The
+// statements therefore count against the opening caller's request in SqlStatistics. A batch of one key goes to
+// the single-key loader, so a quiet system runs the same query as before. A zero window turns batching off.
+// Missing keys load as null.
+final class BatchLoader<K, V> {
+  static final String BATCH_SIZE = "employee.batch.size";
+
+  private final Function<K, V> singleLoader;
+  private final Function<Collection<K>, Map<K, V>> batchLoader;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final DistributionSummary batchSizes;
+  // Callers between entering load and getting their value
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  // Guarded by lock; ReentrantLock rather than synchronized so waiting virtual threads do not pin their carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition batchClosed = lock.newCondition();
+  private Map<K, CompletableFuture<V>> open;
+
+  BatchLoader(String method, Function<K, V> singleLoader, Function<Collection<K>, Map<K, V>> batchLoader,
+      Duration window, int maxBatchSize, MeterRegistry registry) {
+    this.singleLoader = singleLoader;
+    this.batchLoader = batchLoader;
+    this.windowNanos = window.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.batchSizes = DistributionSummary.builder(BATCH_SIZE)
+        .tags("method", method)
+        .register(registry);
+  }
+
+  V load(K key) {
+    inFlight.incrementAndGet();
+    try {
+      Map<K, CompletableFuture<V>> batch;
+      CompletableFuture<V> result;
+      boolean leader;
+      lock.lock();
+      try {
+        leader = open == null;
+        if (leader) {
+          open = new LinkedHashMap<>();
+        }
+        batch = open;
+        result = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+        if (batch.size() >= maxBatchSize) {
+          open = null;
+          batchClosed.signalAll();
+        }
+        if (leader) {
+          awaitWindow(batch);
+        }
+      } finally {
+        lock.unlock();
+      }
+
+      if (leader) {
+        dispatch(batch);
+      }
+      return SingleFlight.join(result);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  // Called with the lock held; returns once the batch is full or the window has passed, with the batch closed.
+  // With no other load in flight it closes at once, so a quiet system pays no window
+  private void awaitWindow(Map<K, CompletableFuture<V>> batch) {
+    long remaining = inFlight.get() > 1 ? windowNanos : 0;
+    try {
+      while (open == batch && remaining > 0) {
+        remaining = batchClosed.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (open == batch) {
+      open = null;
+    }
+  }
+
+  private void dispatch(Map<K, CompletableFuture<V>> batch) {
+    batchSizes.record(batch.size());
+    try {
+      if (batch.size() == 1) {
+        Map.Entry<K, CompletableFuture<V>> only = batch.entrySet().iterator().next();
+        only.getValue().complete(singleLoader.apply(only.getKey()));
+        return;
+      }
+      Map<K, V> values = batchLoader.apply(batch.keySet());
+      batch.forEach((key, result) -> result.complete(values.get(key)));
+    } catch (RuntimeException | Error e) {
+      batch.values().forEach(result -> result.completeExceptionally(e));
+    }
+  }
+}
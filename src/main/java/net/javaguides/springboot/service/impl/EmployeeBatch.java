@@ -0,0 +1,91 @@
+package net.javaguides.springboot.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeBatchResult.Status;
+
+// What the saveEmployees implementations decide before they store anything: an employee is rejected when a column
+// is missing or its email is taken, by a stored employee or by one earlier in the batch. There is one result per
+// employee, in request order; results() adds the ids once the accepted employees are stored
+final class EmployeeBatch {
+  private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+  private final List<EmployeeBatchResult> results;
+  private final List<Employee> accepted;
+
+  private EmployeeBatch(List<EmployeeBatchResult> results, List<Employee> accepted) {
+    this.results = results;
+    this.accepted = accepted;
+  }
+
+  // existingEmails gets each of the emailLookups and returns the emails already stored
+  static EmployeeBatch validate(List<Employee> employees,
+      Function<List<String>, Collection<String>> existingEmails) {
+    Set<String> storedEmails = new HashSet<>();
+    for (List<String> emails : emailLookups(employees)) {
+      storedEmails.addAll(existingEmails.apply(emails));
+    }
+    return validate(employees, storedEmails);
+  }
+
+  // The distinct emails of the batch, at most EMAIL_LOOKUP_CHUNK to a list, for callers that look them up themselves
+  static List<List<String>> emailLookups(List<Employee> employees) {
+    List<String> emails = employees.stream().map(Employee::getEmail).filter(Objects::nonNull)
+        .distinct().toList();
+    List<List<String>> lookups = new ArrayList<>();
+    for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK) {
+      lookups.add(emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emails.size())));
+    }
+    return lookups;
+  }
+
+  static EmployeeBatch validate(List<Employee> employees, Collection<String> storedEmails) {
+    Set<String> takenEmails = new HashSet<>(storedEmails);
+    List<EmployeeBatchResult> results = new ArrayList<>(employees.size());
+    List<Employee> accepted = new ArrayList<>();
+    for (int index = 0; index < employees.size(); index++) {
+      Employee employee = employees.get(index);
+      String reason = null;
+      if (employee.getFirstName() == null || employee.getLastName() == null
+          || employee.getEmail() == null) {
+        reason = "First name, last name and email are required";
+      } else if (!takenEmails.add(employee.getEmail())) {
+        reason = "Such Employee is already exist";
+      }
+
+      if (reason == null) {
+        accepted.add(employee);
+      }
+      results.add(EmployeeBatchResult.builder()
+          .index(index)
+          .status(reason == null ? Status.CREATED : Status.REJECTED)
+          .email(employee.getEmail())
+          .reason(reason)
+          .build());
+    }
+    return new EmployeeBatch(results, accepted);
+  }
+
+  List<Employee> accepted() {
+    return accepted;
+  }
+
+  // Reads the ids the store set on the accepted employees
+  List<EmployeeBatchResult> results() {
+    Iterator<Employee> saved = accepted.iterator();
+    for (EmployeeBatchResult result : results) {
+      if (result.getStatus() == Status.CREATED) {
+        result.setId(saved.next().getId());
+      }
+    }
+    return results;
+  }
+}
@@ -1,49 +1,237 @@
 package net.javaguides.springboot.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import net.javaguides.springboot.exception.ResourceNotFoundException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.ReadYourWrites;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeDto;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Profile("!reactive & !inmemory")
 public class EmployeeServiceImpl implements EmployeeService {
+  // Keep in step with spring.jpa.properties.hibernate.jdbc.batch_size
+  private static final int JDBC_BATCH_SIZE = 100;
+  private static final int ID_LOOKUP_CHUNK = 1000;
 
   private final EmployeeRepository employeeRepository;
+  private final EntityManager entityManager;
+  private final SingleFlight<Long, Optional<Employee>> findByIdCalls;
+  private final BatchLoader<Long, Employee> findByIdBatches;
 
-  public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+  public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+      MeterRegistry meterRegistry,
+      @Value("${employee.batch.window:2ms}") Duration batchWindow,
+      @Value("${employee.batch.max-size:100}") int batchMaxSize) {
     this.employeeRepository = employeeRepository;
+    this.entityManager = entityManager;
+    this.findByIdCalls = new SingleFlight<>("getEmployeeById", meterRegistry);
+    this.findByIdBatches = new BatchLoader<>("getEmployeeById",
+        id -> employeeRepository.findById(id).orElse(null), this::findAllByIds,
+        batchWindow, Math.min(batchMaxSize, ID_LOOKUP_CHUNK), meterRegistry);
   }
 
   @Override
+  @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = "#result.id")
   public Employee saveEmployee(Employee employee) {
-    Optional<Employee> employeeOptional = employeeRepository.findByEmail(employee.getEmail());
+    // The unique index on email decides, so concurrent creates cannot both get through
+    try {
+      return employeeRepository.saveAndFlush(employee);
+    } catch (DataIntegrityViolationException e) {
+      throw translateDuplicateEmail(e);
+    }
+  }
+
+  // Bulk paths clear the whole cache: new ids may still be cached as missing
+  @Override
+  @Transactional
+  @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true)
+  public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+    EmployeeBatch batch = EmployeeBatch.validate(employees, employeeRepository::findExistingEmails);
+    List<Employee> accepted = batch.accepted();
 
-    if (employeeOptional.isPresent()) {
-      throw new ResourceNotFoundException("Such Employee is already exist");
+    // Flush once per JDBC batch so Hibernate sends grouped inserts and the persistence context stays small
+    try {
+      for (int i = 0; i < accepted.size(); i++) {
+        entityManager.persist(accepted.get(i));
+        if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+    } catch (PersistenceException e) {
+      // An email taken by a concurrent request after the lookup above
+      throw translateDuplicateEmail(e);
     }
-    return employeeRepository.save(employee);
+    return batch.results();
   }
 
+  // Reads run in read-only transactions: Hibernate loads entities without dirty-checking snapshots and skips the
+  // flush at commit, and the JDBC connection is marked read-only. With open-in-view off the session closes with
+  // the transaction, so callers get detached entities
   @Override
+  @Transactional(readOnly = true)
   public List<Employee> getAllEmployees() {
     return employeeRepository.findAll();
   }
 
   @Override
+  @Transactional(readOnly = true)
+  public List<Employee> getEmployeesAfter(long after, int limit) {
+    return employeeRepository.findPageAfter(after, PageRequest.ofSize(limit));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void exportEmployees(Consumer<Employee> consumer) {
+    try (Stream<Employee> employees = employeeRepository.streamAll()) {
+      forEachDetached(employees, consumer);
+    }
+  }
+
+  // In the order asked for, without duplicates; unknown ids are left out
+  @Override
+  @Transactional(readOnly = true)
+  public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+    List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+    Map<Long, Employee> found = findAllByIds(distinctIds);
+    return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+  }
+
+  // One IN query per ID_LOOKUP_CHUNK ids, to stay clear of driver and optimizer limits on long IN lists
+  private Map<Long, Employee> findAllByIds(Collection<Long> ids) {
+    List<Long> idList = List.copyOf(ids);
+    Map<Long, Employee> found = new HashMap<>(idList.size() * 4 / 3 + 1);
+    for (int from = 0; from < idList.size(); from += ID_LOOKUP_CHUNK) {
+      int to = Math.min(from + ID_LOOKUP_CHUNK, idList.size());
+      employeeRepository.findAllById(idList.subList(from, to))
+          .forEach(employee -> found.put(employee.getId(), employee));
+    }
+    return found;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<EmployeeDto> getDirectoryAfter(long after, int limit, LongConsumer nextCursor) {
+    findNextCursor(after, limit).ifPresent(nextCursor::accept);
+    return employeeRepository.findDirectoryPageAfter(after, PageRequest.ofSize(limit));
+  }
+
+  // A full page means there may be more rows: its last id is the cursor for the next one. The cursor is read in the
+  // page's transaction, so under REPEATABLE READ both come from one snapshot
+  private Optional<Long> findNextCursor(long after, int limit) {
+    return employeeRepository.findIdsAfter(after, PageRequest.of(limit - 1, 1)).stream().findFirst();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<EmployeeDto> getDirectoryEntry(long id) {
+    return employeeRepository.findDirectoryEntryById(id);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<EmployeeDto> getDirectoryByLastName(String lastName, int limit) {
+    return employeeRepository.findDirectoryByLastName(lastName, PageRequest.ofSize(limit));
+  }
+
+  // Keep the persistence context flat no matter how many rows go through the cursor
+  private void forEachDetached(Stream<Employee> employees, Consumer<Employee> consumer) {
+    employees.forEach(employee -> {
+      consumer.accept(employee);
+      entityManager.detach(employee);
+    });
+  }
+
+  // Empty results are cached too (as null), with the shorter negative TTL from CacheConfig. Concurrent misses
+  // for the same id share one query, and so one connection, and all get the same instance. Misses for different
+  // ids within employee.batch.window go to the database together as one IN query. No transaction here, so a cache
+  // hit takes no connection; findById and findAllById run read-only in SimpleJpaRepository. A read that has to see
+  // its client's last write loads on its own thread, where it is routed to the primary
+  @Override
+  @Cacheable(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
   public Optional<Employee> getEmployeeById(Long id) {
-    return employeeRepository.findById(id);
+    if (ReadYourWrites.readsFromPrimary()) {
+      return employeeRepository.findById(id);
+    }
+    return findByIdCalls.execute(id, () -> Optional.ofNullable(findByIdBatches.load(id)));
   }
 
   @Override
-  public Employee updateEmployee(Employee employee) {
-    return employeeRepository.save(employee);
+  @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#employee.id")
+  public Optional<Employee> updateEmployee(Employee employee) {
+    // Callers hold a detached employee now that sessions end with the transaction; an UPDATE by id writes it
+    // without the select merge would run first. Empty when there is no such row: it is not created again
+    try {
+      if (employeeRepository.replaceEmployee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+          employee.getEmail()) > 0) {
+        return Optional.of(employee);
+      }
+      return Optional.empty();
+    } catch (DataIntegrityViolationException e) {
+      throw translateDuplicateEmail(e);
+    }
   }
 
   @Override
-  public void deleteEmployee(long id) {
-     employeeRepository.deleteById(id);
+  @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
+  public boolean patchEmployee(long id, Employee changes) {
+    try {
+      return employeeRepository.patchEmployee(id, changes.getFirstName(), changes.getLastName(),
+          changes.getEmail()) > 0;
+    } catch (DataIntegrityViolationException e) {
+      throw translateDuplicateEmail(e);
+    }
+  }
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
+  public boolean deleteEmployee(long id) {
+    return employeeRepository.deleteEmployeeById(id) > 0;
+  }
+
+  @Override
+  @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true)
+  public int deleteEmployees(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return employeeRepository.deleteEmployeesByIds(ids);
+  }
+
+  static RuntimeException translateDuplicateEmail(RuntimeException e) {
+    String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    if (message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_UNIQUE_INDEX)) {
+      return new ResourceAlreadyExistsException("Such Employee is already exist");
+    }
+    return e;
   }
 }
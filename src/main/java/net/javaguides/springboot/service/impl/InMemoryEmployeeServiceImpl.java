@@ -0,0 +1,129 @@
+package net.javaguides.springboot.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeDto;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+// EmployeeService over InMemoryEmployeeRepository (inmemory profile). Same results and errors as
+// EmployeeServiceImpl, without its cache, coalescing and batching: a lookup here costs less than a cache hit does
+@Service
+@Profile("inmemory")
+public class InMemoryEmployeeServiceImpl implements EmployeeService {
+  private final InMemoryEmployeeRepository employeeRepository;
+
+  public InMemoryEmployeeServiceImpl(InMemoryEmployeeRepository employeeRepository) {
+    this.employeeRepository = employeeRepository;
+  }
+
+  @Override
+  public Employee saveEmployee(Employee employee) {
+    try {
+      return employeeRepository.save(employee);
+    } catch (DataIntegrityViolationException e) {
+      throw EmployeeServiceImpl.translateDuplicateEmail(e);
+    }
+  }
+
+  @Override
+  public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+    EmployeeBatch batch = EmployeeBatch.validate(employees, employeeRepository::findExistingEmails);
+    // All or nothing, as in the JPA transaction: an email taken by a concurrent request after the lookup above
+    // fails the whole insert
+    try {
+      employeeRepository.insertAll(batch.accepted());
+    } catch (DataIntegrityViolationException e) {
+      throw EmployeeServiceImpl.translateDuplicateEmail(e);
+    }
+    return batch.results();
+  }
+
+  @Override
+  public List<Employee> getAllEmployees() {
+    return employeeRepository.findAll();
+  }
+
+  @Override
+  public List<Employee> getEmployeesAfter(long after, int limit) {
+    return employeeRepository.findPageAfter(after, limit);
+  }
+
+  @Override
+  public void exportEmployees(Consumer<Employee> consumer) {
+    employeeRepository.forEachAfter(Long.MIN_VALUE, Integer.MAX_VALUE, consumer);
+  }
+
+  // In the order asked for, without duplicates; unknown ids are left out
+  @Override
+  public List<Employee> getEmployeesByIds(Collection<Long> ids) {
+    return ids.stream().filter(Objects::nonNull).distinct()
+        .map(employeeRepository::findById)
+        .flatMap(Optional::stream)
+        .toList();
+  }
+
+  @Override
+  public List<EmployeeDto> getDirectoryAfter(long after, int limit, LongConsumer nextCursor) {
+    employeeRepository.findPageEndAfter(after, limit).ifPresent(nextCursor::accept);
+    return employeeRepository.findDirectoryPageAfter(after, limit);
+  }
+
+  @Override
+  public Optional<EmployeeDto> getDirectoryEntry(long id) {
+    return employeeRepository.findDirectoryEntryById(id);
+  }
+
+  @Override
+  public List<EmployeeDto> getDirectoryByLastName(String lastName, int limit) {
+    return employeeRepository.findDirectoryByLastName(lastName, limit);
+  }
+
+  @Override
+  public Optional<Employee> getEmployeeById(Long id) {
+    return employeeRepository.findById(id);
+  }
+
+  // Empty when the row is gone, as in EmployeeServiceImpl: a deleted employee is not created again
+  @Override
+  public Optional<Employee> updateEmployee(Employee employee) {
+    try {
+      if (employeeRepository.replaceEmployee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+          employee.getEmail()) > 0) {
+        return Optional.of(employee);
+      }
+      return Optional.empty();
+    } catch (DataIntegrityViolationException e) {
+      throw EmployeeServiceImpl.translateDuplicateEmail(e);
+    }
+  }
+
+  @Override
+  public boolean patchEmployee(long id, Employee changes) {
+    try {
+      return employeeRepository.patchEmployee(id, changes.getFirstName(), changes.getLastName(),
+          changes.getEmail()) > 0;
+    } catch (DataIntegrityViolationException e) {
+      throw EmployeeServiceImpl.translateDuplicateEmail(e);
+    }
+  }
+
+  @Override
+  public boolean deleteEmployee(long id) {
+    return employeeRepository.deleteEmployeeById(id) > 0;
+  }
+
+  @Override
+  public int deleteEmployees(Collection<Long> ids) {
+    return employeeRepository.deleteEmployeesByIds(ids);
+  }
+}
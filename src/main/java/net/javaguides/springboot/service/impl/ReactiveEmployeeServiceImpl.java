@@ -0,0 +1,120 @@
+package net.javaguides.springboot.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.id.TsidGenerator;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+  private final ReactiveEmployeeRepository employeeRepository;
+  private final R2dbcEntityTemplate entityTemplate;
+  private final TsidGenerator idGenerator;
+
+  // The table has no auto-increment column, so inserts take TSIDs. Sequence ids from a JPA instance on the same
+  // table would interleave with them and break id order, so the id settings must say tsid for both stacks
+  public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository,
+      R2dbcEntityTemplate entityTemplate,
+      @Value("${spring.jpa.properties.employee.id.strategy:sequence}") String strategy,
+      @Value("${spring.jpa.properties.employee.id.node:0}") long node) {
+    if (!"tsid".equals(strategy)) {
+      throw new IllegalStateException("The reactive profile inserts TSIDs but employee.id.strategy is " + strategy
+          + "; set spring.jpa.properties.employee.id.strategy=tsid");
+    }
+    this.employeeRepository = employeeRepository;
+    this.entityTemplate = entityTemplate;
+    this.idGenerator = new TsidGenerator(node);
+  }
+
+  @Override
+  public Mono<Employee> saveEmployee(Employee employee) {
+    return insert(employee)
+        .onErrorMap(DataIntegrityViolationException.class, EmployeeServiceImpl::translateDuplicateEmail);
+  }
+
+  @Override
+  @Transactional
+  public Flux<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+    return Flux.fromIterable(EmployeeBatch.emailLookups(employees))
+        .concatMap(employeeRepository::findExistingEmails)
+        .collect(Collectors.toSet())
+        .flatMapMany(storedEmails -> {
+          EmployeeBatch batch = EmployeeBatch.validate(employees, storedEmails);
+          return Flux.fromIterable(batch.accepted())
+              .concatMap(this::insert)
+              .thenMany(Flux.defer(() -> Flux.fromIterable(batch.results())));
+        })
+        .onErrorMap(DataIntegrityViolationException.class, EmployeeServiceImpl::translateDuplicateEmail);
+  }
+
+  // Repository save() would issue an UPDATE for an entity that already carries an id
+  private Mono<Employee> insert(Employee employee) {
+    employee.setId(idGenerator.next());
+    return entityTemplate.insert(employee);
+  }
+
+  @Override
+  public Flux<Employee> getEmployeesAfter(long after, int limit) {
+    return employeeRepository.findPageAfter(after, limit);
+  }
+
+  // Resolved before the page streams so it can go into a response header
+  @Override
+  public Mono<Long> getNextCursor(long after, int limit) {
+    return employeeRepository.findIdAfter(after, limit - 1);
+  }
+
+  @Override
+  public Flux<Employee> exportEmployees() {
+    return employeeRepository.streamAll();
+  }
+
+  @Override
+  public Mono<Employee> getEmployeeById(long id) {
+    return employeeRepository.findById(id);
+  }
+
+  // One UPDATE by id; empty when the row is gone, rather than a read that a concurrent delete can outdate
+  @Override
+  public Mono<Employee> updateEmployee(Employee employee) {
+    return employeeRepository.replaceEmployee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+            employee.getEmail())
+        .filter(updated -> updated > 0)
+        .map(updated -> employee)
+        .onErrorMap(DataIntegrityViolationException.class, EmployeeServiceImpl::translateDuplicateEmail);
+  }
+
+  @Override
+  public Mono<Boolean> patchEmployee(long id, Employee changes) {
+    return employeeRepository.patchEmployee(id, changes.getFirstName(), changes.getLastName(),
+            changes.getEmail())
+        .map(updated -> updated > 0)
+        .onErrorMap(DataIntegrityViolationException.class, EmployeeServiceImpl::translateDuplicateEmail);
+  }
+
+  @Override
+  public Mono<Boolean> deleteEmployee(long id) {
+    return employeeRepository.deleteEmployeeById(id).map(deleted -> deleted > 0);
+  }
+
+  @Override
+  public Mono<Integer> deleteEmployees(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Mono.just(0);
+    }
+    return employeeRepository.deleteEmployeesByIds(ids);
+  }
+}
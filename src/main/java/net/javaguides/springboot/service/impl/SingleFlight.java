@@ -0,0 +1,70 @@
+package net.javaguides.springboot.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Concurrent calls for the same key share one execution: the first caller runs the loader on its own thread and
+// the others wait for its result or exception. Nothing is kept after the call completes, so only overlapping
+// callers are folded together; caching stays with CacheConfig.
+final class SingleFlight<K, V> {
+  static final String CALLS = "employee.coalescing.calls";
+  static final String IN_FLIGHT = "employee.coalescing.in.flight";
+
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Counter executed;
+  private final Counter coalesced;
+
+  SingleFlight(String method, MeterRegistry registry) {
+    this.executed = Counter.builder(CALLS)
+        .tags("method", method, "outcome", "executed")
+        .register(registry);
+    this.coalesced = Counter.builder(CALLS)
+        .tags("method", method, "outcome", "coalesced")
+        .register(registry);
+    Gauge.builder(IN_FLIGHT, inFlight, Map::size)
+        .tags("method", method)
+        .register(registry);
+  }
+
+  V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+    if (running != null) {
+      coalesced.increment();
+      return join(running);
+    }
+
+    executed.increment();
+    try {
+      V value = loader.get();
+      call.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  // Rethrows the exception of the caller that did the work as it was thrown
+  static <V> V join(CompletableFuture<V> call) {
+    try {
+      return call.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
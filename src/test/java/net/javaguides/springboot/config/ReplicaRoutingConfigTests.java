@@ -0,0 +1,93 @@
+package net.javaguides.springboot.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// Two embedded H2 databases as primary and replica. There is no replication between them, so the replica gets
+// its own row and every read shows which database answered it
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = {
+    "spring.datasource.url=" + ReplicaRoutingConfigTests.PRIMARY_URL,
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "employee.datasource.routing.enabled=true",
+    "employee.datasource.routing.replica-urls=" + ReplicaRoutingConfigTests.REPLICA_URL,
+    "employee.datasource.routing.read-your-writes=0s"
+})
+public class ReplicaRoutingConfigTests {
+  static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+  static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private HealthEndpoint healthEndpoint;
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+
+  @BeforeEach
+  public void setup() {
+    primary = new JdbcTemplate(new SingleConnectionDataSource(PRIMARY_URL, "sa", "", true));
+    replica = new JdbcTemplate(new SingleConnectionDataSource(REPLICA_URL, "sa", "", true));
+    replica.execute("create table if not exists employees (id bigint primary key, "
+        + "first_name varchar(255) not null, last_name varchar(255) not null, email varchar(255) not null)");
+    replica.update("insert into employees values (1, 'Replica', 'Row', 'replica@gmail.com')");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    replica.update("delete from employees");
+    primary.update("delete from employees");
+  }
+
+  @Test
+  public void givenReplica_whenGetAllEmployees_thenReadFromReplica() {
+    // when
+    List<Employee> employees = employeeService.getAllEmployees();
+
+    //then
+    assertThat(employees).extracting(Employee::getEmail).containsExactly("replica@gmail.com");
+  }
+
+  @Test
+  public void givenReplica_whenSaveEmployee_thenWrittenToPrimaryOnly() {
+    // when
+    employeeService.saveEmployee(Employee.builder()
+        .firstName("Nicolai")
+        .lastName("Mar")
+        .email("marunev@gmail.com")
+        .build());
+
+    //then
+    assertThat(primary.queryForList("select email from employees", String.class))
+        .containsExactly("marunev@gmail.com");
+    assertThat(replica.queryForList("select email from employees", String.class))
+        .containsExactly("replica@gmail.com");
+  }
+
+  @Test
+  public void givenReplica_whenHealthCheck_thenPrimaryAndReplicaReported() {
+    // when
+    Status primaryStatus = healthEndpoint.healthForPath("db", "primary").getStatus();
+    Status replicaStatus = healthEndpoint.healthForPath("db", "replica-0").getStatus();
+
+    //then
+    assertThat(primaryStatus).isEqualTo(Status.UP);
+    assertThat(replicaStatus).isEqualTo(Status.UP);
+  }
+}
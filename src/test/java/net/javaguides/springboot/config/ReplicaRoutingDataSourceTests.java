@@ -0,0 +1,273 @@
+package net.javaguides.springboot.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import net.javaguides.springboot.config.ReplicaRoutingConfig.ReadYourWritesFilter;
+import net.javaguides.springboot.config.ReplicaRoutingDataSource.Balancer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Three embedded H2 databases stand in for the primary and two replicas; each query reports which one ran it
+public class ReplicaRoutingDataSourceTests {
+  private static final Duration FAILOVER_RETRY = Duration.ofMinutes(1);
+  private static final Duration READ_YOUR_WRITES = Duration.ofMinutes(1);
+
+  private final List<HikariDataSource> pools = new ArrayList<>();
+  private ReplicaRoutingDataSource routingDataSource;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  @AfterEach
+  public void tearDown() {
+    routingDataSource.close();
+    pools.forEach(HikariDataSource::close);
+  }
+
+  @Test
+  public void givenReadOnlyTransaction_whenQuery_thenRunsOnReplica() {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0");
+
+    // when
+    String database = readOnly.execute(status -> database());
+
+    //then
+    assertThat(database).isEqualTo("REPLICA0");
+  }
+
+  @Test
+  public void givenReadWriteTransactionOrNone_whenQuery_thenRunsOnPrimary() {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0");
+
+    // when
+    String inTransaction = readWrite.execute(status -> database());
+    String withoutTransaction = database();
+
+    //then
+    assertThat(inTransaction).isEqualTo("PRIMARY");
+    assertThat(withoutTransaction).isEqualTo("PRIMARY");
+  }
+
+  @Test
+  public void givenTwoReplicas_whenRoundRobin_thenReadsAlternate() {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0", "replica1");
+
+    // when
+    List<String> databases = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      databases.add(readOnly.execute(status -> database()));
+    }
+
+    //then
+    assertThat(databases).containsExactly("REPLICA0", "REPLICA1", "REPLICA0", "REPLICA1");
+  }
+
+  @Test
+  public void givenBusyReplica_whenLeastConnections_thenReadsGoToTheOther() throws Exception {
+    // given
+    route(Balancer.LEAST_CONNECTIONS, "replica0", "replica1");
+
+    // when
+    List<String> databases = new ArrayList<>();
+    try (Connection held = pools.get(1).getConnection()) {
+      for (int i = 0; i < 3; i++) {
+        databases.add(readOnly.execute(status -> database()));
+      }
+    }
+
+    //then
+    assertThat(databases).containsOnly("REPLICA1");
+  }
+
+  @Test
+  public void givenUnreachableReplica_whenRead_thenFailsOverToHealthyReplica() {
+    // given
+    route(Balancer.ROUND_ROBIN, null, "replica1");
+
+    // when
+    List<String> databases = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      databases.add(readOnly.execute(status -> database()));
+    }
+
+    //then
+    assertThat(databases).containsOnly("REPLICA1");
+  }
+
+  @Test
+  public void givenNoReachableReplica_whenRead_thenFallsBackToPrimary() {
+    // given
+    route(Balancer.ROUND_ROBIN, (String) null);
+
+    // when
+    String database = readOnly.execute(status -> database());
+
+    //then
+    assertThat(database).isEqualTo("PRIMARY");
+  }
+
+  @Test
+  public void givenLastWriteHeader_whenReadYourWrites_thenReadsStayOnPrimary() throws Exception {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0");
+    MockHttpServletResponse written = new MockHttpServletResponse();
+    request(null, written, () -> readWrite.execute(status -> database()));
+
+    // when
+    String database = request(written.getHeader(ReadYourWrites.LAST_WRITE_HEADER), new MockHttpServletResponse(),
+        () -> readOnly.execute(status -> database()));
+
+    //then
+    assertThat(written.getHeader(ReadYourWrites.LAST_WRITE_HEADER)).isNotNull();
+    assertThat(database).isEqualTo("PRIMARY");
+  }
+
+  @Test
+  public void givenWriteOnThisThreadWithoutHeader_whenReadYourWrites_thenReadGoesToReplica() throws Exception {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0");
+    request(null, new MockHttpServletResponse(), () -> readWrite.execute(status -> database()));
+
+    // when
+    String inRequest = request(null, new MockHttpServletResponse(), () -> readOnly.execute(status -> database()));
+    String outsideRequest = readOnly.execute(status -> database());
+
+    //then
+    assertThat(inRequest).isEqualTo("REPLICA0");
+    assertThat(outsideRequest).isEqualTo("REPLICA0");
+  }
+
+  @Test
+  public void givenStaleLastWriteHeader_whenReadYourWrites_thenReadGoesToReplica() throws Exception {
+    // given
+    route(Balancer.ROUND_ROBIN, "replica0");
+    String lastWrite = String.valueOf(System.currentTimeMillis() - READ_YOUR_WRITES.toMillis() - 1);
+
+    // when
+    String database = request(lastWrite, new MockHttpServletResponse(),
+        () -> readOnly.execute(status -> database()));
+
+    //then
+    assertThat(database).isEqualTo("REPLICA0");
+  }
+
+  @Test
+  public void givenUnreachableReplica_whenHealthCheck_thenReportedDownAndSkippedByReads() throws Exception {
+    // given
+    HikariDataSource primary = pool("jdbc:h2:mem:primary");
+    CountingDataSource unreachable = new CountingDataSource(pool("jdbc:h2:tcp://localhost:1/unreachable"));
+    route(primary, Balancer.ROUND_ROBIN, List.of(unreachable, pool("jdbc:h2:mem:replica1")));
+
+    // when
+    CompositeHealthContributor health = routingDataSource.healthContributor();
+    Status replica0Status = ((HealthIndicator) health.getContributor("replica-0")).health().getStatus();
+    Status replica1Status = ((HealthIndicator) health.getContributor("replica-1")).health().getStatus();
+    Status primaryStatus = ((HealthIndicator) health.getContributor(ReplicaRoutingDataSource.PRIMARY)).health()
+        .getStatus();
+    List<String> databases = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      databases.add(readOnly.execute(status -> database()));
+    }
+
+    //then
+    assertThat(primaryStatus).isEqualTo(Status.UP);
+    assertThat(replica0Status).isEqualTo(Status.DOWN);
+    assertThat(replica1Status).isEqualTo(Status.UP);
+    assertThat(databases).containsOnly("REPLICA1");
+    assertThat(unreachable.connections.get()).isEqualTo(1);
+  }
+
+  // Runs query as a request through ReadYourWritesFilter, sending lastWrite in X-Last-Write unless it is null
+  private String request(String lastWrite, MockHttpServletResponse response, Supplier<String> query)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+    if (lastWrite != null) {
+      request.addHeader(ReadYourWrites.LAST_WRITE_HEADER, lastWrite);
+    }
+    AtomicReference<String> database = new AtomicReference<>();
+    new ReadYourWritesFilter(READ_YOUR_WRITES).doFilter(request, response, new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        database.set(query.get());
+      }
+    });
+    return database.get();
+  }
+
+  // A null replica name is a pool whose database cannot be reached
+  private void route(Balancer balancer, String... replicaNames) {
+    HikariDataSource primary = pool("jdbc:h2:mem:primary");
+    List<DataSource> replicas = new ArrayList<>();
+    for (String name : replicaNames) {
+      replicas.add(pool(name == null ? "jdbc:h2:tcp://localhost:1/unreachable" : "jdbc:h2:mem:" + name));
+    }
+    route(primary, balancer, replicas);
+  }
+
+  private void route(DataSource primary, Balancer balancer, List<DataSource> replicas) {
+    routingDataSource = new ReplicaRoutingDataSource(primary, replicas, balancer, FAILOVER_RETRY);
+
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  private HikariDataSource pool(String url) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setJdbcUrl(url + ";DB_CLOSE_DELAY=-1");
+    pool.setUsername("sa");
+    pool.setMaximumPoolSize(2);
+    pool.setConnectionTimeout(250);
+    pool.setInitializationFailTimeout(-1);
+    pools.add(pool);
+    return pool;
+  }
+
+  private String database() {
+    return jdbcTemplate.queryForObject("select database()", String.class);
+  }
+
+  // Counts the connections asked of a replica, the health check's included
+  private static final class CountingDataSource extends DelegatingDataSource {
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private CountingDataSource(DataSource dataSource) {
+      super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      connections.incrementAndGet();
+      return super.getConnection();
+    }
+  }
+}
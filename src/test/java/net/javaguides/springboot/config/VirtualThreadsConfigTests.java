@@ -0,0 +1,54 @@
+package net.javaguides.springboot.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+    properties = "employee.virtual-threads.enabled=true")
+@AutoConfigureTestDatabase
+public class VirtualThreadsConfigTests {
+
+  @Autowired
+  private ServletWebServerApplicationContext context;
+
+  @Autowired
+  @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  private AsyncTaskExecutor applicationTaskExecutor;
+
+  @Test
+  public void givenVirtualThreadsEnabled_whenTomcatRunsTask_thenRunsOnVirtualThread() throws Exception {
+    // given
+    Executor executor = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector()
+        .getProtocolHandler().getExecutor();
+
+    // when
+    String thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().toString(), executor).get();
+
+    //then
+    assertThat(thread).startsWith("VirtualThread");
+  }
+
+  @Test
+  public void givenVirtualThreadsEnabled_whenAsyncTaskRuns_thenRunsOnVirtualThread() throws Exception {
+    // when
+    String thread = applicationTaskExecutor.submit(() -> Thread.currentThread().toString()).get();
+
+    //then
+    assertThat(thread).startsWith("VirtualThread");
+  }
+}
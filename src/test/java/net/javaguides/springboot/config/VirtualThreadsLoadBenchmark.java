@@ -0,0 +1,125 @@
+package net.javaguides.springboot.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+// GET /api/employees throughput and latency with 1,000 concurrent clients, on Tomcat's platform thread pool
+// and on virtual threads. H2 stands in for MySQL and SlowDatabase delays every statement to model a database
+// under load; the connection pool is larger than Tomcat's 200 threads so that threads are the limit.
+// Not part of the regular build. Build with the usual JDK and fork the tests on Java 21:
+//   mvn test -Dtest=VirtualThreadsLoadBenchmark -Djvm=<java-21-home>/bin/java
+public class VirtualThreadsLoadBenchmark {
+  private static final int CLIENTS = 1_000;
+  private static final int REQUESTS = 20_000;
+  private static final int RUNS = 3;
+  private static final long DATABASE_LATENCY_MILLIS = 500;
+
+  @Nested
+  @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+      "spring.datasource.url=jdbc:h2:mem:platform-threads;DB_CLOSE_DELAY=-1",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.datasource.hikari.maximum-pool-size=400",
+      "spring.jpa.show-sql=false",
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "net.javaguides.springboot.config.VirtualThreadsLoadBenchmark$SlowDatabase",
+      "employee.virtual-threads.enabled=false"})
+  class PlatformThreads extends LoadRun {
+  }
+
+  @Nested
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+      "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.datasource.hikari.maximum-pool-size=400",
+      "spring.jpa.show-sql=false",
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "net.javaguides.springboot.config.VirtualThreadsLoadBenchmark$SlowDatabase",
+      "employee.virtual-threads.enabled=true"})
+  class VirtualThreads extends LoadRun {
+  }
+
+  public static class SlowDatabase implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+      try {
+        Thread.sleep(DATABASE_LATENCY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return sql;
+    }
+  }
+
+  abstract static class LoadRun {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void loadTest() throws Exception {
+      for (int i = 0; i < 10; i++) {
+        employeeRepository.save(Employee.builder()
+            .firstName("First" + i)
+            .lastName("Last" + i)
+            .email(i + "@gmail.com")
+            .build());
+      }
+
+      HttpClient client = HttpClient.newHttpClient();
+      HttpRequest request = HttpRequest.newBuilder(
+          URI.create("http://localhost:" + port + "/api/employees?limit=5")).build();
+
+      for (int run = 0; run < RUNS; run++) {
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore clients = new Semaphore(CLIENTS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+          int index = i;
+          clients.acquire();
+          long sent = System.nanoTime();
+          client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+              .whenComplete((response, failure) -> {
+                latencies[index] = System.nanoTime() - sent;
+                if (failure != null || response.statusCode() != 200) {
+                  errors.incrementAndGet();
+                }
+                clients.release();
+                done.countDown();
+              });
+        }
+        done.await();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-16s run %d: %,d requests in %,d ms = %,d req/s, p50 %,d ms, p99 %,d ms, %d errors%n",
+            getClass().getSimpleName(), run, REQUESTS, elapsedMillis, REQUESTS * 1000L / elapsedMillis,
+            latencies[REQUESTS / 2] / 1_000_000, latencies[REQUESTS * 99 / 100] / 1_000_000, errors.get());
+      }
+    }
+  }
+}
@@ -1,25 +1,57 @@
 package net.javaguides.springboot.controller;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import net.javaguides.springboot.config.JacksonConfig;
+import net.javaguides.springboot.config.JacksonProtobufHttpMessageConverter;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeBatchResult.Status;
+import net.javaguides.springboot.model.EmployeeDto;
 import net.javaguides.springboot.service.EmployeeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -29,6 +61,9 @@ public class EmployeeControllerTests {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private JacksonProtobufHttpMessageConverter protobufConverter;
+
   @MockBean
   private EmployeeService employeeService;
 
@@ -73,6 +108,50 @@ public class EmployeeControllerTests {
   }
 
 
+  // Create duplicate
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+    // given
+    given(employeeService.saveEmployee(any(Employee.class)))
+        .willThrow(new ResourceAlreadyExistsException("Such Employee is already exist"));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    // then
+    response.andDo(print())
+        .andExpect(status().isConflict());
+  }
+
+
+  // Batch create
+  @Test
+  public void givenEmployeeList_whenCreateEmployees_thenReturnPerItemResults() throws Exception {
+    // given
+    Employee duplicate = new Employee(0L, "NewNicolai", "NewMar", employee.getEmail());
+    given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+        EmployeeBatchResult.builder().index(0).status(Status.CREATED).id(1L)
+            .email(employee.getEmail()).build(),
+        EmployeeBatchResult.builder().index(1).status(Status.REJECTED)
+            .email(duplicate.getEmail()).reason("Such Employee is already exist").build()));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(employee, duplicate))));
+
+    // then
+    response.andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.size()", is(2)))
+        .andExpect(jsonPath("$[0].status", is("CREATED")))
+        .andExpect(jsonPath("$[0].id", is(1)))
+        .andExpect(jsonPath("$[1].status", is("REJECTED")));
+  }
+
+
   // GetAll
   @Test
   public void givenListOfEmployees_whenGetAllEmployee_thenReturnEmpoyeeList()
@@ -81,8 +160,7 @@ public class EmployeeControllerTests {
     List<Employee> employeeList =
         List.of(employee, new Employee(1L, "NewNicolai", "NewMar", "newEmail"));
     // given
-    given(employeeService.getAllEmployees())
-        .willReturn(employeeList);
+    givenPage(0L, 50, employeeList);
 
     // when
     ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
@@ -105,6 +183,339 @@ public class EmployeeControllerTests {
   }
 
 
+  // GetAll keyset page
+  @Test
+  public void givenFullPage_whenGetAllEmployeesAfterCursor_thenReturnNextCursor()
+      throws Exception {
+    // given
+    Employee employee2 = new Employee(7L, "NewNicolai", "NewMar", "newEmail");
+    givenPage(1L, 2, List.of(employee, employee2));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("after", "1")
+        .param("limit", "2")
+        .contentType(MediaType.APPLICATION_JSON));
+
+    // then
+    response.andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "7"))
+        .andExpect(jsonPath("$.size()", is(2)));
+  }
+
+
+  @Test
+  public void givenPartialPage_whenGetAllEmployees_thenReturnNoNextCursor() throws Exception {
+    // given
+    givenPage(0L, 500, List.of(employee));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("limit", "100000")
+        .contentType(MediaType.APPLICATION_JSON));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-Cursor"))
+        .andExpect(jsonPath("$.size()", is(1)));
+  }
+
+
+  private void givenPage(long after, int limit, List<Employee> employees) {
+    given(employeeService.getEmployeesAfter(after, limit)).willReturn(employees);
+  }
+
+
+  // GetAll in binary formats
+  @Test
+  public void givenListOfEmployees_whenGetAllEmployeesAsCbor_thenReturnCborArray() throws Exception {
+    // given
+    Employee employee2 = new Employee(2L, "NewNicolai", "NewMar", "newEmail");
+    givenPage(0L, 50, List.of(employee, employee2));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .accept(MediaType.APPLICATION_CBOR));
+
+    // then
+    byte[] body = response.andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+    List<Employee> employees = new CBORMapper().readerForListOf(Employee.class).readValue(body);
+    assertThat(employees).extracting(Employee::getEmail).containsExactly(employee.getEmail(), employee2.getEmail());
+  }
+
+  @Test
+  public void givenListOfEmployees_whenGetAllEmployeesAsProtobuf_thenReturnDelimitedMessages() throws Exception {
+    // given
+    Employee employee2 = new Employee(2L, "NewNicolai", "NewMar", "newEmail");
+    givenPage(0L, 2, List.of(employee, employee2));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("limit", "2")
+        .accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+
+    // then
+    byte[] body = response.andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "2"))
+        .andExpect(content().contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(readDelimited(body)).extracting(Employee::getId).containsExactly(1L, 2L);
+  }
+
+  @Test
+  public void givenPreferredFormat_whenGetAllEmployees_thenHonourQuality() throws Exception {
+    // given
+    givenPage(0L, 50, List.of(employee));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, " + JacksonConfig.APPLICATION_SMILE_VALUE));
+
+    // then
+    byte[] body = response.andExpect(status().isOk())
+        .andExpect(content().contentType(JacksonConfig.APPLICATION_SMILE))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(new SmileMapper().readerForListOf(Employee.class).<List<Employee>>readValue(body))
+        .extracting(Employee::getEmail).containsExactly(employee.getEmail());
+  }
+
+  @Test
+  public void givenUnsupportedFormat_whenGetAllEmployees_thenReturnNotAcceptable() throws Exception {
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .accept(MediaType.APPLICATION_XML));
+
+    // then
+    response.andExpect(status().isNotAcceptable());
+    verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+  }
+
+  // Length-delimited Employee messages, the way protobuf's parseDelimitedFrom reads them
+  private List<Employee> readDelimited(byte[] body) throws IOException {
+    ObjectReader reader = protobufReader();
+    List<Employee> employees = new ArrayList<>();
+    ByteArrayInputStream input = new ByteArrayInputStream(body);
+    while (input.available() > 0) {
+      int length = 0;
+      for (int shift = 0; ; shift += 7) {
+        int b = input.read();
+        length |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          break;
+        }
+      }
+      employees.add(reader.readValue(input.readNBytes(length)));
+    }
+    return employees;
+  }
+
+  private static ObjectReader protobufReader() throws IOException {
+    return new ProtobufMapper().readerFor(Employee.class).with(shippedSchema("Employee"));
+  }
+
+  // The schema clients compile against, as served at /employees.proto
+  private static ProtobufSchema shippedSchema(String messageType) throws IOException {
+    try (InputStream proto = new ClassPathResource("static/employees.proto").getInputStream()) {
+      return ProtobufSchemaLoader.std.load(proto).withRootType(messageType);
+    }
+  }
+
+  private static List<String> fields(ProtobufSchema schema) {
+    List<String> fields = new ArrayList<>();
+    schema.getRootType().fields().forEach(field -> fields.add(field.name + " = " + field.id + " " + field.type));
+    return fields;
+  }
+
+  @Test
+  public void givenModelClasses_whenGenerateProtobufSchema_thenMatchServedProtoFile() throws Exception {
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees.proto"));
+
+    //then
+    String proto = response.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    for (Class<?> type : List.of(Employee.class, EmployeeDto.class)) {
+      assertThat(fields(protobufConverter.schemaFor(type)))
+          .isEqualTo(fields(ProtobufSchemaLoader.std.parse(proto).withRootType(type.getSimpleName())));
+    }
+  }
+
+
+  // Single employees in binary formats
+  @Test
+  public void givenProtobufEmployee_whenCreateEmployee_thenReturnProtobufEmployee() throws Exception {
+    // given
+    given(employeeService.saveEmployee(any(Employee.class)))
+        .willAnswer(invocation -> invocation.getArgument(0));
+    byte[] body = new ProtobufMapper().writer(shippedSchema("Employee")).writeValueAsBytes(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+        .contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+        .accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+        .content(body));
+
+    // then
+    byte[] saved = response.andExpect(status().isCreated())
+        .andExpect(content().contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(protobufReader().<Employee>readValue(saved).getEmail()).isEqualTo(employee.getEmail());
+  }
+
+  @Test
+  public void givenEmployeeObject_whenGetByIdAsSmile_thenReturnSmileEmployee() throws Exception {
+    // given
+    given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", 1L)
+        .accept(JacksonConfig.APPLICATION_SMILE));
+
+    // then
+    byte[] body = response.andExpect(status().isOk())
+        .andExpect(content().contentType(JacksonConfig.APPLICATION_SMILE))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(new SmileMapper().readValue(body, Employee.class).getLastName()).isEqualTo(employee.getLastName());
+  }
+
+  @Test
+  public void givenEmployeeList_whenCreateEmployeesAsProtobuf_thenReturnUnsupportedMediaType() throws Exception {
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees/batch")
+        .contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+        .content(new byte[0]));
+
+    // then
+    response.andExpect(status().isUnsupportedMediaType());
+  }
+
+
+  // Export
+  @Test
+  public void givenEmployees_whenExportEmployees_thenStreamNdjson() throws Exception {
+    // given
+    Employee employee2 = new Employee(2L, "NewNicolai", "NewMar", "newEmail");
+    willAnswer(invocation -> {
+      Consumer<Employee> consumer = invocation.getArgument(0);
+      consumer.accept(employee);
+      consumer.accept(employee2);
+      return null;
+    }).given(employeeService).exportEmployees(any());
+
+    // when
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // then
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(objectMapper.writeValueAsString(employee) + "\n"
+            + objectMapper.writeValueAsString(employee2) + "\n"));
+  }
+
+
+  @Test
+  public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesWithoutReadingAPage() throws Exception {
+    // given
+    Employee employee = Employee.builder()
+        .id(1L)
+        .firstName("Nicolai")
+        .lastName("Mar")
+        .email("marunev@gmail.com")
+        .build();
+    given(employeeService.getEmployeesByIds(List.of(1L, 2L))).willReturn(List.of(employee));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("ids", "1,2"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(jsonPath("$.size()", is(1)))
+        .andExpect(jsonPath("$[0].email", is(employee.getEmail())));
+    verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+  }
+
+  @Test
+  public void givenProtobufAccept_whenGetEmployeesByIds_thenReturnDelimitedMessages() throws Exception {
+    // given
+    Employee employee = Employee.builder()
+        .id(2L)
+        .firstName("John")
+        .lastName("Cena")
+        .email("cena@gmail.com")
+        .build();
+    given(employeeService.getEmployeesByIds(List.of(2L))).willReturn(List.of(employee));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("ids", "2")
+        .accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+
+    // then
+    byte[] body = response.andExpect(status().isOk())
+        .andExpect(content().contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getContentAsByteArray();
+    assertThat(readDelimited(body)).extracting(Employee::getEmail).containsExactly(employee.getEmail());
+  }
+
+
+  // Directory
+  @Test
+  public void givenDirectoryPage_whenGetDirectory_thenReturnNamesAndNextCursor() throws Exception {
+    // given
+    willAnswer(invocation -> {
+      invocation.<LongConsumer>getArgument(2).accept(2L);
+      return List.of(new EmployeeDto("Nicolai", "Mar"), new EmployeeDto("John", "Cena"));
+    }).given(employeeService).getDirectoryAfter(eq(0L), eq(2), any());
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/directory")
+        .param("limit", "2"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor", "2"))
+        .andExpect(jsonPath("$.size()", is(2)))
+        .andExpect(jsonPath("$[1].lastName", is("Cena")))
+        .andExpect(jsonPath("$[0].email").doesNotExist());
+  }
+
+  @Test
+  public void givenLastName_whenGetDirectory_thenReturnNamesWithThatLastName() throws Exception {
+    // given
+    given(employeeService.getDirectoryByLastName("Mar", 500))
+        .willReturn(List.of(new EmployeeDto("Nicolai", "Mar")));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/directory")
+        .param("lastName", "Mar")
+        .param("limit", "100000"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].firstName", is("Nicolai")));
+    verify(employeeService, never()).getDirectoryAfter(anyLong(), anyInt(), any());
+  }
+
+  @Test
+  public void givenMissingEmployee_whenGetDirectoryEntry_thenReturnNotFound() throws Exception {
+    // given
+    given(employeeService.getDirectoryEntry(1L)).willReturn(Optional.empty());
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/directory/{id}", 1L));
+
+    // then
+    response.andExpect(status().isNotFound());
+    verify(employeeService, never()).getEmployeeById(any());
+  }
+
+
   //GetById Positive
   @Test
   public void givenEmployeeObject_whenGetById_thenReturnEmployee() throws Exception {
@@ -162,9 +573,8 @@ public class EmployeeControllerTests {
             .build();
 
     // when
-    given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
     given(employeeService.updateEmployee(any(Employee.class))).willAnswer(
-        invoke -> invoke.getArgument(0));
+        invoke -> Optional.of(invoke.getArgument(0)));
 
 
     ResultActions response =
@@ -197,9 +607,7 @@ public class EmployeeControllerTests {
             .build();
 
     // when
-    given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
-    given(employeeService.updateEmployee(any(Employee.class))).willAnswer(
-        invoke -> invoke.getArgument(0));
+    given(employeeService.updateEmployee(any(Employee.class))).willReturn(Optional.empty());
 
 
     ResultActions response =
@@ -212,11 +620,49 @@ public class EmployeeControllerTests {
         .andExpect(status().isNotFound());
   }
 
+  @Test
+  public void givenPartialEmployee_whenPatchEmployee_thenReturnOk() throws Exception {
+    // given
+    long employeeId = 1L;
+    Employee changes = Employee.builder().lastName("Second LastName").build();
+    given(employeeService.patchEmployee(eq(employeeId), any(Employee.class))).willReturn(true);
+
+    // when
+    ResultActions response =
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}", employeeId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(changes)));
+
+    // then
+    response
+        .andExpect(status().isOk());
+    verify(employeeService, never()).getEmployeeById(employeeId);
+  }
+
+
+  @Test
+  public void givenPartialEmployee_whenPatchMissingEmployee_thenReturn404() throws Exception {
+    // given
+    long employeeId = 1L;
+    Employee changes = Employee.builder().lastName("Second LastName").build();
+    given(employeeService.patchEmployee(eq(employeeId), any(Employee.class))).willReturn(false);
+
+    // when
+    ResultActions response =
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/employees/{id}", employeeId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(changes)));
+
+    // then
+    response
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   public void givenEmployee_whenDeleteEmployee_thenEmployeeIsDeleted() throws Exception {
     // given
     long employeeId = 1L;
-    willDoNothing().given(employeeService).deleteEmployee(employeeId);
+    given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
     // when
     ResultActions response =
@@ -225,6 +671,40 @@ public class EmployeeControllerTests {
 
     // then
     response
-        .andExpect(status().isOk());
+        .andExpect(status().isNoContent());
+  }
+
+
+  @Test
+  public void givenMissingEmployee_whenDeleteEmployee_thenReturn404() throws Exception {
+    // given
+    long employeeId = 1L;
+    given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+    // when
+    ResultActions response =
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees/{id}", employeeId)
+            .contentType(MediaType.APPLICATION_JSON));
+
+    // then
+    response
+        .andExpect(status().isNotFound());
+  }
+
+
+  @Test
+  public void givenEmployeeIds_whenDeleteEmployees_thenEmployeesAreDeleted() throws Exception {
+    // given
+    given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+    // when
+    ResultActions response =
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employees")
+            .param("ids", "1,2,3")
+            .contentType(MediaType.APPLICATION_JSON));
+
+    // then
+    response
+        .andExpect(status().isNoContent());
   }
 }
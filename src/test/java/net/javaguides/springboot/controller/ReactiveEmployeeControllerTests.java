@@ -0,0 +1,187 @@
+package net.javaguides.springboot.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ReactiveEmployeeService employeeService;
+
+  Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    employee =
+        Employee.builder()
+            .id(1)
+            .firstName("Nicolai")
+            .lastName("Mar")
+            .email("marunev@gmail.com")
+            .build();
+  }
+
+  @Test
+  public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+    // given
+    given(employeeService.saveEmployee(any(Employee.class))).willReturn(Mono.just(employee));
+
+    // when / then
+    webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.email").isEqualTo(employee.getEmail());
+  }
+
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() {
+    // given
+    given(employeeService.saveEmployee(any(Employee.class)))
+        .willReturn(Mono.error(new ResourceAlreadyExistsException("Such Employee is already exist")));
+
+    // when / then
+    webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isEqualTo(409);
+  }
+
+  @Test
+  public void givenFullPage_whenGetAllEmployees_thenReturnPageWithNextCursor() {
+    // given
+    given(employeeService.getNextCursor(0, 2)).willReturn(Mono.just(2L));
+    given(employeeService.getEmployeesAfter(0, 2)).willReturn(Flux.just(employee,
+        Employee.builder().id(2).firstName("John").lastName("Cena").email("cena@gmail.com").build()));
+
+    // when / then
+    webTestClient.get().uri("/api/employees?limit=2")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(EmployeeController.NEXT_CURSOR_HEADER, "2")
+        .expectBody()
+        .jsonPath("$.size()").isEqualTo(2)
+        .jsonPath("$[1].id").isEqualTo(2);
+  }
+
+  @Test
+  public void givenLastPage_whenGetAllEmployees_thenReturnPageWithoutCursor() {
+    // given
+    given(employeeService.getNextCursor(1, 50)).willReturn(Mono.empty());
+    given(employeeService.getEmployeesAfter(1, 50)).willReturn(Flux.empty());
+
+    // when / then
+    webTestClient.get().uri("/api/employees?after=1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER)
+        .expectBody()
+        .jsonPath("$.size()").isEqualTo(0);
+  }
+
+  @Test
+  public void givenEmployees_whenExportEmployees_thenReturnNdjson() {
+    // given
+    given(employeeService.exportEmployees()).willReturn(Flux.just(employee, employee));
+
+    // when / then
+    webTestClient.get().uri("/api/employees/export")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(Employee.class).hasSize(2);
+  }
+
+  @Test
+  public void givenInvalidEmployeeId_whenGetEmployeeById_thenReturnNotFound() {
+    // given
+    given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+
+    // when / then
+    webTestClient.get().uri("/api/employees/{id}", 1)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void givenUpdatedEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+    // given
+    given(employeeService.updateEmployee(any(Employee.class)))
+        .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    // when / then
+    webTestClient.put().uri("/api/employees/{id}", 1)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo(1)
+        .jsonPath("$.email").isEqualTo("ram@gmail.com");
+  }
+
+  @Test
+  public void givenMissingEmployee_whenUpdateEmployee_thenReturnNotFound() {
+    // given
+    given(employeeService.updateEmployee(any(Employee.class))).willReturn(Mono.empty());
+
+    // when / then
+    webTestClient.put().uri("/api/employees/{id}", 1)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void givenMissingEmployee_whenPatchEmployee_thenReturnNotFound() {
+    // given
+    given(employeeService.patchEmployee(eq(1L), any(Employee.class))).willReturn(Mono.just(false));
+
+    // when / then
+    webTestClient.patch().uri("/api/employees/{id}", 1)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void givenEmployeeIds_whenDeleteEmployees_thenReturnNoContent() {
+    // given
+    given(employeeService.deleteEmployee(1L)).willReturn(Mono.just(true));
+    given(employeeService.deleteEmployees(List.of(2L, 3L))).willReturn(Mono.just(2));
+
+    // when / then
+    webTestClient.delete().uri("/api/employees/{id}", 1)
+        .exchange()
+        .expectStatus().isNoContent();
+    webTestClient.delete().uri("/api/employees?ids=2,3")
+        .exchange()
+        .expectStatus().isNoContent();
+  }
+}
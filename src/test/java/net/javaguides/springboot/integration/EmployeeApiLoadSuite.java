@@ -0,0 +1,306 @@
+package net.javaguides.springboot.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+// Mixed CRUD traffic against /api/employees on an embedded H2 database. Reports throughput, p50/p99/p999
+// latency and error rate per endpoint (console and target/load-test-report.json) and fails when an SLO is missed.
+// Clients are closed-loop: each sends its next request when the previous one returns.
+// Not part of the regular build, run with: mvn -Pload-test test [-Dloadtest.clients=64 -Dloadtest.read-ratio=0.9]
+// The settings and SLO thresholds are the loadtest.* properties of the load-test profile in pom.xml.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:load-test;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "logging.level.net.javaguides.springboot.metrics.AsyncSqlLogger=warn"})
+public class EmployeeApiLoadSuite {
+  private static final int SEEDED_EMPLOYEES = 1_000;
+
+  private final int clients = Integer.getInteger("loadtest.clients", 16);
+  private final long warmupMillis = Long.getLong("loadtest.warmup-seconds", 10) * 1000;
+  private final long durationMillis = Long.getLong("loadtest.duration-seconds", 30) * 1000;
+  private final double readRatio = Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.8"));
+  private final double sloP99Millis = Double.parseDouble(System.getProperty("loadtest.slo.p99-millis", "250"));
+  private final double sloP999Millis = Double.parseDouble(System.getProperty("loadtest.slo.p999-millis", "1000"));
+  private final double sloErrorRate = Double.parseDouble(System.getProperty("loadtest.slo.error-rate", "0.001"));
+  private final double sloThroughput = Double.parseDouble(System.getProperty("loadtest.slo.min-throughput", "100"));
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  private long[] seededIds;
+
+  enum Endpoint {
+    GET_BY_ID("GET /api/employees/{id}"),
+    GET_PAGE("GET /api/employees?after&limit"),
+    POST("POST /api/employees"),
+    PUT("PUT /api/employees/{id}"),
+    PATCH("PATCH /api/employees/{id}"),
+    DELETE("DELETE /api/employees/{id}");
+
+    private final String label;
+
+    Endpoint(String label) {
+      this.label = label;
+    }
+  }
+
+  @Test
+  void mixedCrudTrafficMeetsSlos() throws Exception {
+    List<Employee> seed = new ArrayList<>(SEEDED_EMPLOYEES);
+    for (int i = 0; i < SEEDED_EMPLOYEES; i++) {
+      seed.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("seed" + i + "@gmail.com").build());
+    }
+    seededIds = employeeRepository.saveAll(seed).stream().mapToLong(Employee::getId).toArray();
+
+    System.out.printf("Load test: %d clients, %.0f%% reads, %ds warm-up, %ds measured%n", clients, readRatio * 100,
+        warmupMillis / 1000, durationMillis / 1000);
+    run(warmupMillis);
+    Map<Endpoint, Recorder> results = run(durationMillis);
+
+    report(results);
+    checkSlos(results);
+  }
+
+  private Map<Endpoint, Recorder> run(long millis) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    try {
+      long deadline = System.nanoTime() + millis * 1_000_000;
+      List<Future<Map<Endpoint, Recorder>>> futures = new ArrayList<>();
+      for (int client = 0; client < clients; client++) {
+        int clientId = client;
+        futures.add(executor.submit(() -> new Client(clientId).run(deadline)));
+      }
+
+      Map<Endpoint, Recorder> merged = new LinkedHashMap<>();
+      for (Endpoint endpoint : Endpoint.values()) {
+        merged.put(endpoint, new Recorder());
+      }
+      for (Future<Map<Endpoint, Recorder>> future : futures) {
+        future.get().forEach((endpoint, recorder) -> merged.get(endpoint).addAll(recorder));
+      }
+      return merged;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // One simulated user: reads seeded employees, and creates, changes and deletes its own
+  private class Client {
+    private final SplittableRandom random;
+    private final String email;
+    private final List<Long> ownIds = new ArrayList<>();
+    private final Map<Endpoint, Recorder> recorders = new LinkedHashMap<>();
+    private long created;
+
+    Client(int clientId) {
+      this.random = new SplittableRandom(clientId);
+      this.email = "client" + clientId + "-" + System.nanoTime() + "-";
+      for (Endpoint endpoint : Endpoint.values()) {
+        recorders.put(endpoint, new Recorder());
+      }
+    }
+
+    Map<Endpoint, Recorder> run(long deadline) {
+      while (System.nanoTime() < deadline) {
+        if (random.nextDouble() < readRatio) {
+          if (random.nextInt(4) == 0) {
+            send(Endpoint.GET_PAGE, HttpRequest.newBuilder(uri("/api/employees?after="
+                + seededIds[random.nextInt(seededIds.length)] + "&limit=50")).GET());
+          } else {
+            send(Endpoint.GET_BY_ID, HttpRequest.newBuilder(uri("/api/employees/"
+                + seededIds[random.nextInt(seededIds.length)])).GET());
+          }
+          continue;
+        }
+
+        int write = ownIds.isEmpty() ? 0 : random.nextInt(5);
+        if (write <= 1) {
+          HttpResponse<String> response = send(Endpoint.POST, json(HttpRequest.newBuilder(uri("/api/employees")),
+              "POST", employee()));
+          if (response != null && response.statusCode() == 201) {
+            ownIds.add(id(response));
+          }
+        } else if (write == 2) {
+          send(Endpoint.PUT, json(HttpRequest.newBuilder(uri("/api/employees/" + ownId())), "PUT", employee()));
+        } else if (write == 3) {
+          send(Endpoint.PATCH, json(HttpRequest.newBuilder(uri("/api/employees/" + ownId())), "PATCH",
+              Map.of("firstName", "Patched" + random.nextInt(1000))));
+        } else {
+          long id = ownIds.remove(ownIds.size() - 1);
+          send(Endpoint.DELETE, HttpRequest.newBuilder(uri("/api/employees/" + id)).DELETE());
+        }
+      }
+      return recorders;
+    }
+
+    private long ownId() {
+      return ownIds.get(random.nextInt(ownIds.size()));
+    }
+
+    private Employee employee() {
+      long n = created++;
+      return Employee.builder().firstName("Load" + n).lastName("Client").email(email + n + "@gmail.com").build();
+    }
+
+    private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder request) {
+      long start = System.nanoTime();
+      HttpResponse<String> response = null;
+      try {
+        response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+      } catch (Exception e) {
+        // counted as an error below
+      }
+      boolean error = response == null || response.statusCode() >= 300;
+      recorders.get(endpoint).record(System.nanoTime() - start, error);
+      return response;
+    }
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private HttpRequest.Builder json(HttpRequest.Builder request, String method, Object body) {
+    try {
+      return request.header("Content-Type", "application/json")
+          .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private long id(HttpResponse<String> response) {
+    try {
+      JsonNode employee = objectMapper.readTree(response.body());
+      return employee.get("id").asLong();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void report(Map<Endpoint, Recorder> results) throws Exception {
+    double seconds = durationMillis / 1000.0;
+    Map<String, Object> report = new LinkedHashMap<>();
+    System.out.printf("%-32s %9s %9s %9s %9s %9s %9s %8s%n", "Endpoint", "Requests", "Req/s", "p50 ms", "p99 ms",
+        "p999 ms", "max ms", "Errors");
+    long total = 0;
+    for (Map.Entry<Endpoint, Recorder> entry : results.entrySet()) {
+      Recorder recorder = entry.getValue();
+      if (recorder.count() == 0) {
+        continue;
+      }
+      total += recorder.count();
+      System.out.printf("%-32s %,9d %,9.0f %9.2f %9.2f %9.2f %9.2f %7.3f%%%n", entry.getKey().label,
+          recorder.count(), recorder.count() / seconds, recorder.percentileMillis(0.50),
+          recorder.percentileMillis(0.99), recorder.percentileMillis(0.999), recorder.percentileMillis(1.0),
+          recorder.errorRate() * 100);
+      report.put(entry.getKey().label, Map.of(
+          "requests", recorder.count(),
+          "throughput", recorder.count() / seconds,
+          "p50Millis", recorder.percentileMillis(0.50),
+          "p99Millis", recorder.percentileMillis(0.99),
+          "p999Millis", recorder.percentileMillis(0.999),
+          "maxMillis", recorder.percentileMillis(1.0),
+          "errorRate", recorder.errorRate()));
+    }
+    System.out.printf("Total %,d requests, %,.0f req/s%n", total, total / seconds);
+    report.put("throughput", total / seconds);
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File("target/load-test-report.json"), report);
+  }
+
+  private void checkSlos(Map<Endpoint, Recorder> results) {
+    SoftAssertions slos = new SoftAssertions();
+    long total = 0;
+    for (Map.Entry<Endpoint, Recorder> entry : results.entrySet()) {
+      Recorder recorder = entry.getValue();
+      total += recorder.count();
+      if (recorder.count() == 0) {
+        continue;
+      }
+      String endpoint = entry.getKey().label;
+      slos.assertThat(recorder.percentileMillis(0.99)).as("%s p99 ms", endpoint).isLessThanOrEqualTo(sloP99Millis);
+      slos.assertThat(recorder.percentileMillis(0.999)).as("%s p999 ms", endpoint)
+          .isLessThanOrEqualTo(sloP999Millis);
+      slos.assertThat(recorder.errorRate()).as("%s error rate", endpoint).isLessThanOrEqualTo(sloErrorRate);
+    }
+    slos.assertThat(total / (durationMillis / 1000.0)).as("throughput req/s").isGreaterThanOrEqualTo(sloThroughput);
+    slos.assertAll();
+  }
+
+  // Latencies of one endpoint, kept raw and sorted once at the end
+  private static class Recorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private boolean sorted;
+
+    void record(long nanos, boolean error) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+      if (error) {
+        errors++;
+      }
+      sorted = false;
+    }
+
+    void addAll(Recorder other) {
+      latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+      System.arraycopy(other.latencies, 0, latencies, count, other.count);
+      count += other.count;
+      errors += other.errors;
+      sorted = false;
+    }
+
+    long count() {
+      return count;
+    }
+
+    double errorRate() {
+      return count == 0 ? 0 : (double) errors / count;
+    }
+
+    double percentileMillis(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      if (!sorted) {
+        Arrays.sort(latencies, 0, count);
+        sorted = true;
+      }
+      int index = (int) Math.ceil(percentile * count) - 1;
+      return latencies[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+  }
+}
@@ -1,17 +1,22 @@
 package net.javaguides.springboot.integration;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
+import net.javaguides.springboot.metrics.SqlStatementBudget;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -19,8 +24,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "employee.sql-statistics.headers=true")
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 public class EmployeeControllerITests {
   @Autowired
   private MockMvc mockMvc;
@@ -48,6 +55,9 @@ public class EmployeeControllerITests {
   @Test
   public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmpoyee()
       throws Exception {
+    // given an id block already allocated, as it is for all but one in increment-size creates
+    employeeRepository.save(new Employee(0L, "Other", "Employee", "other@gmail.com"));
+
     // when
     ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
         .contentType(MediaType.APPLICATION_JSON)
@@ -56,6 +66,7 @@ public class EmployeeControllerITests {
     // then
     response.andDo(print()) // выводит в консоль значения
         .andExpect(status().isCreated())
+        .andExpect(SqlStatementBudget.atMost(1))
         .andExpect(
             jsonPath("$.firstName", is(employee.getFirstName())))
         .andExpect(
@@ -63,13 +74,33 @@ public class EmployeeControllerITests {
         .andExpect(jsonPath("$.email", is(employee.getEmail())));
   }
 
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+    // given
+    employeeRepository.save(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(Employee.builder()
+            .firstName("Other")
+            .lastName("Name")
+            .email(employee.getEmail())
+            .build())));
+
+    // then
+    response.andDo(print())
+        .andExpect(status().isConflict())
+        .andExpect(SqlStatementBudget.atMost(1));
+  }
+
   @Test
   public void givenListOfEmployees_whenGetAllEmployee_thenReturnEmpoyeeList()
       throws Exception {
 
     // given
     List<Employee> employeeList =
-        List.of(employee, new Employee(1L, "NewNicolai", "NewMar", "newEmail"));
+        List.of(employee, new Employee(0L, "NewNicolai", "NewMar", "newEmail"));
     employeeRepository.saveAll(employeeList);
 
     // when
@@ -79,6 +110,7 @@ public class EmployeeControllerITests {
     // then
     response.andDo(print()) // выводит в консоль значения
         .andExpect(status().isOk())
+        .andExpect(SqlStatementBudget.exactly(1)) // the page, which carries its own cursor
         .andExpect(
             jsonPath("$[0].firstName",
                 is(employee.getFirstName())))
@@ -93,6 +125,44 @@ public class EmployeeControllerITests {
   }
 
 
+  @Test
+  public void givenListOfEmployees_whenGetByIds_thenReturnThemWithOneQuery() throws Exception {
+    // given
+    Employee second = new Employee(0L, "NewNicolai", "NewMar", "newEmail");
+    employeeRepository.saveAll(List.of(employee, second));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees")
+        .param("ids", second.getId() + "," + employee.getId() + ",-1"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(SqlStatementBudget.exactly(1))
+        .andExpect(jsonPath("$.size()", is(2)))
+        .andExpect(jsonPath("$[0].email", is(second.getEmail())))
+        .andExpect(jsonPath("$[1].email", is(employee.getEmail())));
+  }
+
+
+  @Test
+  public void givenListOfEmployees_whenGetDirectory_thenReturnNamesOnly() throws Exception {
+    // given
+    employeeRepository.saveAll(List.of(employee, new Employee(0L, "NewNicolai", "NewMar", "newEmail")));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/directory")
+        .param("limit", "1"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(SqlStatementBudget.atMost(2)) // next-cursor probe and the projection
+        .andExpect(header().exists("X-Next-Cursor"))
+        .andExpect(jsonPath("$.size()", is(1)))
+        .andExpect(jsonPath("$[0].firstName", is(employee.getFirstName())))
+        .andExpect(jsonPath("$[0].email").doesNotExist());
+  }
+
+
   @Test
   public void givenEmployeeObject_whenGetById_thenReturnEmployee() throws Exception {
     // given
@@ -106,6 +176,7 @@ public class EmployeeControllerITests {
     // then
     response.andDo(print()) // выводит в консоль значения
         .andExpect(status().isOk())
+        .andExpect(SqlStatementBudget.atMost(1))
         .andExpect(
             jsonPath("$.firstName",
                 is(employee.getFirstName())))
@@ -154,8 +225,10 @@ public class EmployeeControllerITests {
             .content(objectMapper.writeValueAsString(updatedEmployee)));
 
     // then
+    // the update alone; PUT replaces every column, so no read is needed before or after it
     response
         .andExpect(status().isOk())
+        .andExpect(SqlStatementBudget.atMost(1))
         .andExpect(
             jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
         .andExpect(
@@ -185,7 +258,8 @@ public class EmployeeControllerITests {
 
     // then
     response
-        .andExpect(status().isNotFound());
+        .andExpect(status().isNotFound())
+        .andExpect(SqlStatementBudget.atMost(1));
   }
 
 
@@ -201,6 +275,28 @@ public class EmployeeControllerITests {
 
     // then
     response.andDo(print())
-        .andExpect(status().isOk());
+        .andExpect(status().isNoContent())
+        .andExpect(SqlStatementBudget.atMost(1));
+  }
+
+
+  @Test
+  public void givenEmployeeRequests_whenScrapePrometheus_thenLayerMetricsArePublished() throws Exception {
+    // given
+    employeeRepository.save(employee);
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/employees/{id}", employee.getId()));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"));
+
+    // then
+    response.andExpect(status().isOk())
+        .andExpect(content().string(containsString(
+            "employee_calls_seconds_bucket{class=\"EmployeeService\",layer=\"service\",method=\"getEmployeeById\"")))
+        .andExpect(content().string(containsString(
+            "employee_calls_seconds_count{class=\"EmployeeRepository\",layer=\"repository\",method=\"save\",}")))
+        .andExpect(content().string(containsString("employee_calls_active{")))
+        .andExpect(content().string(containsString("hikaricp_connections_active")))
+        .andExpect(content().string(containsString("hibernate_statements_total")));
   }
 }
@@ -0,0 +1,151 @@
+package net.javaguides.springboot.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.sql.DataSource;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// The servlet API over the in-memory engine; the employee.inmemory.directory override keeps it off the disk
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "employee.inmemory.directory=")
+@ActiveProfiles("inmemory")
+public class InMemoryEmployeeControllerITests {
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private InMemoryEmployeeRepository employeeRepository;
+
+  @Autowired
+  private ApplicationContext context;
+
+  Employee employee;
+
+  @BeforeEach
+  void setup() {
+    employeeRepository.deleteAll();
+
+    employee =
+        Employee.builder()
+            .firstName("Nicolai")
+            .lastName("Mar")
+            .email("marunev123@gmail.com")
+            .build();
+  }
+
+  @Test
+  public void givenInMemoryProfile_whenContextStarts_thenNoJdbcOrJpa() {
+    assertThat(context.getBean(EmployeeService.class)).isInstanceOf(InMemoryEmployeeServiceImpl.class);
+    assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+    assertThat(context.getBeanNamesForType(EmployeeRepository.class)).isEmpty();
+  }
+
+  @Test
+  public void givenEmployeeObject_whenCreateUpdateAndDelete_thenEachStepIsVisible() {
+    // create
+    Employee saved = webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(Employee.class)
+        .returnResult().getResponseBody();
+    assertThat(saved.getId()).isPositive();
+
+    // duplicate email
+    webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isEqualTo(409);
+
+    // update
+    webTestClient.put().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.email").isEqualTo("ram@gmail.com");
+
+    // patch
+    webTestClient.patch().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().lastName("Mar").build())
+        .exchange()
+        .expectStatus().isOk();
+    webTestClient.get().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.firstName").isEqualTo("Ram")
+        .jsonPath("$.lastName").isEqualTo("Mar");
+
+    // delete
+    webTestClient.delete().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isNoContent();
+    webTestClient.get().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isNotFound();
+
+    // update after delete
+    webTestClient.put().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isNotFound();
+    assertThat(employeeRepository.count()).isZero();
+  }
+
+  @Test
+  public void givenBatch_whenPagingThroughEmployees_thenCursorWalksAllRows() {
+    // given
+    List<Employee> employees = List.of(employee,
+        Employee.builder().firstName("John").lastName("Cena").email("cena@gmail.com").build(),
+        Employee.builder().firstName("Kristian").lastName("Ronaldo").email("ronaldo@gmail.com").build());
+    webTestClient.post().uri("/api/employees/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employees)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(EmployeeBatchResult.class).hasSize(3);
+
+    // when
+    String cursor = webTestClient.get().uri("/api/employees?limit=2")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Employee.class).hasSize(2)
+        .returnResult().getResponseHeaders().getFirst("X-Next-Cursor");
+
+    // then
+    webTestClient.get().uri("/api/employees?limit=2&after={after}", cursor)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().doesNotExist("X-Next-Cursor")
+        .expectBodyList(Employee.class).hasSize(1);
+    webTestClient.get().uri("/api/employees/export")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Employee.class).hasSize(3);
+    webTestClient.get().uri("/api/employees/directory?lastName=Cena")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$[0].firstName").isEqualTo("John");
+  }
+}
@@ -0,0 +1,141 @@
+package net.javaguides.springboot.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.sql.DataSource;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive-it",
+    "spring.sql.init.schema-locations=classpath:reactive/schema.sql",
+    "spring.jpa.properties.employee.id.strategy=tsid"})
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerITests {
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired
+  private ReactiveWebServerApplicationContext context;
+
+  Employee employee;
+
+  @BeforeEach
+  void setup() {
+    employeeRepository.deleteAll().block();
+
+    employee =
+        Employee.builder()
+            .firstName("Nicolai")
+            .lastName("Mar")
+            .email("marunev123@gmail.com")
+            .build();
+  }
+
+  @Test
+  public void givenReactiveProfile_whenContextStarts_thenRunsOnNettyWithoutJdbc() {
+    assertThat(context.getWebServer()).isInstanceOf(NettyWebServer.class);
+    assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+  }
+
+  @Test
+  public void givenEmployeeObject_whenCreateUpdateAndDelete_thenEachStepIsVisible() {
+    // create
+    Employee saved = webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(Employee.class)
+        .returnResult().getResponseBody();
+    assertThat(saved.getId()).isPositive();
+
+    // duplicate email
+    webTestClient.post().uri("/api/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employee)
+        .exchange()
+        .expectStatus().isEqualTo(409);
+
+    // update
+    webTestClient.put().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.email").isEqualTo("ram@gmail.com");
+
+    // patch
+    webTestClient.patch().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().lastName("Mar").build())
+        .exchange()
+        .expectStatus().isOk();
+    webTestClient.get().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.firstName").isEqualTo("Ram")
+        .jsonPath("$.lastName").isEqualTo("Mar");
+
+    // delete
+    webTestClient.delete().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isNoContent();
+    webTestClient.get().uri("/api/employees/{id}", saved.getId())
+        .exchange()
+        .expectStatus().isNotFound();
+    webTestClient.put().uri("/api/employees/{id}", saved.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build())
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  public void givenBatch_whenPagingThroughEmployees_thenCursorWalksAllRows() {
+    // given
+    List<Employee> employees = List.of(employee,
+        Employee.builder().firstName("John").lastName("Cena").email("cena@gmail.com").build(),
+        Employee.builder().firstName("Kristian").lastName("Ronaldo").email("ronaldo@gmail.com").build());
+    webTestClient.post().uri("/api/employees/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employees)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(EmployeeBatchResult.class).hasSize(3);
+
+    // when
+    String cursor = webTestClient.get().uri("/api/employees?limit=2")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Employee.class).hasSize(2)
+        .returnResult().getResponseHeaders().getFirst("X-Next-Cursor");
+
+    // then
+    webTestClient.get().uri("/api/employees?limit=2&after={after}", cursor)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().doesNotExist("X-Next-Cursor")
+        .expectBodyList(Employee.class).hasSize(1);
+    webTestClient.get().uri("/api/employees/export")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(Employee.class).hasSize(3);
+  }
+}
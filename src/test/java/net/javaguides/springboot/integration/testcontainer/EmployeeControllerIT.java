@@ -97,7 +97,7 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
             .build();
 
     List<Employee> employeeList =
-        List.of(new Employee(1L, "NewNicolai", "NewMar", "newEmail"), newEmployee);
+        List.of(new Employee(0L, "NewNicolai", "NewMar", "newEmail"), newEmployee);
     employeeRepository.saveAll(employeeList);
 
     // when
@@ -229,6 +229,6 @@ public class EmployeeControllerIT extends AbstractionBaseTest{
 
     // then
     response.andDo(print())
-        .andExpect(status().isOk());
+        .andExpect(status().isNoContent());
   }
 }
@@ -0,0 +1,58 @@
+package net.javaguides.springboot.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+// Cost per statement of SQL logging on the calling thread, against an in-memory H2 primary key lookup:
+//   none           the bare driver
+//   proxy          datasource-proxy with no listeners
+//   async-sampled  AsyncSqlLogger as configured in application.properties (1% sampled, 100ms slow threshold)
+//   sync-every     every statement formatted and logged on the calling thread, as show-sql does
+// Not part of the regular build, run with: mvn test -Dtest=AsyncSqlLoggerBenchmark
+public class AsyncSqlLoggerBenchmark {
+  private static final int STATEMENTS = 200_000;
+  private static final int RUNS = 5;
+
+  @Test
+  void overheadPerStatement() throws Exception {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:sql-log-benchmark;DB_CLOSE_DELAY=-1");
+    try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("create table employees (id bigint primary key, email varchar(255))");
+      statement.execute("insert into employees values (1, '1@gmail.com')");
+    }
+
+    try (AsyncSqlLogger sqlLogger = new AsyncSqlLogger(0.01, 100, 8192)) {
+      for (int run = 0; run < RUNS; run++) {
+        measure(run, "none", h2);
+        measure(run, "proxy", ProxyDataSourceBuilder.create(h2).build());
+        measure(run, "async-sampled", ProxyDataSourceBuilder.create(h2).listener(sqlLogger).build());
+        measure(run, "sync-every", ProxyDataSourceBuilder.create(h2).logQueryBySlf4j(SLF4JLogLevel.INFO).build());
+      }
+      System.out.printf("async-sampled wrote %,d entries, dropped %,d%n", sqlLogger.getWritten(),
+          sqlLogger.getDropped());
+    }
+  }
+
+  private static void measure(int run, String name, DataSource dataSource) throws Exception {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("select email from employees where id = ?")) {
+      long start = System.nanoTime();
+      for (int i = 0; i < STATEMENTS; i++) {
+        statement.setLong(1, 1L);
+        try (ResultSet rows = statement.executeQuery()) {
+          rows.next();
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      System.err.printf("%-14s run %d: %,d ns per statement%n", name, run, elapsed / STATEMENTS);
+    }
+  }
+}
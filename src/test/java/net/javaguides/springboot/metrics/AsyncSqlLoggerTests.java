@@ -0,0 +1,102 @@
+package net.javaguides.springboot.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class AsyncSqlLoggerTests {
+
+  private JdbcDataSource h2;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:sql-log;DB_CLOSE_DELAY=-1");
+    try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists employees");
+      statement.execute("create table employees (id bigint primary key, email varchar(255))");
+    }
+  }
+
+  private void insert(AsyncSqlLogger sqlLogger, int rows) throws Exception {
+    DataSource dataSource = ProxyDataSourceBuilder.create(h2).listener(sqlLogger).build();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("insert into employees values (?, ?)")) {
+      for (int id = 0; id < rows; id++) {
+        statement.setLong(1, id);
+        statement.setString(2, id + "@gmail.com");
+        statement.executeUpdate();
+      }
+    }
+  }
+
+  @Test
+  public void givenSlowThreshold_whenStatementIsSlower_thenLoggedWithParameters(CapturedOutput output)
+      throws Exception {
+    // given
+    AsyncSqlLogger sqlLogger = new AsyncSqlLogger(0, 0, 16);
+
+    // when
+    insert(sqlLogger, 1);
+    sqlLogger.close();
+
+    //then
+    assertThat(sqlLogger.getWritten()).isEqualTo(1);
+    assertThat(output).contains("sql slow=true")
+        .contains("statement=\"insert into employees values (?, ?)\"")
+        .contains("params=[(0,0@gmail.com)]");
+  }
+
+  @Test
+  public void givenSampling_whenStatementIsFast_thenLoggedWithoutParameters(CapturedOutput output)
+      throws Exception {
+    // given
+    AsyncSqlLogger sqlLogger = new AsyncSqlLogger(1.0, Long.MAX_VALUE, 16);
+
+    // when
+    insert(sqlLogger, 1);
+    sqlLogger.close();
+
+    //then
+    assertThat(sqlLogger.getWritten()).isEqualTo(1);
+    assertThat(output).contains("sql slow=false").doesNotContain("0@gmail.com");
+  }
+
+  @Test
+  public void givenNoSamplingAndFastStatements_whenExecuted_thenNothingIsLogged() throws Exception {
+    // given
+    AsyncSqlLogger sqlLogger = new AsyncSqlLogger(0, Long.MAX_VALUE, 16);
+
+    // when
+    insert(sqlLogger, 100);
+    sqlLogger.close();
+
+    //then
+    assertThat(sqlLogger.getWritten()).isZero();
+    assertThat(sqlLogger.getDropped()).isZero();
+  }
+
+  @Test
+  public void givenFullBuffer_whenStatementsKeepComing_thenEntriesAreDroppedNotBlocked() throws Exception {
+    // given
+    AsyncSqlLogger sqlLogger = new AsyncSqlLogger(1.0, Long.MAX_VALUE, 1);
+
+    // when
+    insert(sqlLogger, 1_000);
+    sqlLogger.close();
+
+    //then
+    assertThat(sqlLogger.getWritten() + sqlLogger.getDropped()).isEqualTo(1_000);
+  }
+}
@@ -0,0 +1,113 @@
+package net.javaguides.springboot.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+public class EmployeeMetricsAspectTests {
+
+  private SimpleMeterRegistry registry;
+  private EmployeeService target;
+  private EmployeeService employeeService;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    registry = new SimpleMeterRegistry();
+    target = mock(EmployeeService.class);
+    employeeService = proxy(target, EmployeeService.class);
+    employee = Employee.builder()
+        .id(1L)
+        .firstName("Nicolai")
+        .lastName("Mar")
+        .email("marunev@gmail.com")
+        .build();
+  }
+
+  private <T> T proxy(T target, Class<T> type) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.addInterface(type);
+    factory.addAspect(new EmployeeMetricsAspect(registry));
+    return factory.getProxy();
+  }
+
+  @Test
+  public void givenServiceCalls_whenReadingMetrics_thenEachCallIsTimed() {
+    // given
+    given(target.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+    // when
+    employeeService.getEmployeeById(1L);
+    employeeService.getEmployeeById(1L);
+
+    //then
+    assertThat(registry.get(EmployeeMetricsAspect.CALLS)
+        .tags("layer", "service", "class", "EmployeeService", "method", "getEmployeeById")
+        .timer().count()).isEqualTo(2);
+    assertThat(registry.get(EmployeeMetricsAspect.ACTIVE)
+        .tags("method", "getEmployeeById")
+        .gauge().value()).isZero();
+  }
+
+  @Test
+  public void givenFailingServiceCall_whenReadingMetrics_thenErrorIsCountedByException() {
+    // given
+    given(target.saveEmployee(employee))
+        .willThrow(new ResourceAlreadyExistsException("Such Employee is already exist"));
+
+    // when
+    assertThrows(ResourceAlreadyExistsException.class, () -> employeeService.saveEmployee(employee));
+
+    //then
+    assertThat(registry.get(EmployeeMetricsAspect.ERRORS)
+        .tags("method", "saveEmployee", "exception", "ResourceAlreadyExistsException")
+        .counter().count()).isEqualTo(1);
+    assertThat(registry.get(EmployeeMetricsAspect.CALLS)
+        .tags("method", "saveEmployee")
+        .timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void givenCallInProgress_whenReadingMetrics_thenActiveGaugeCountsIt() {
+    // given
+    AtomicReference<Double> activeDuringCall = new AtomicReference<>();
+    given(target.deleteEmployee(1L)).willAnswer(invocation -> {
+      activeDuringCall.set(registry.get(EmployeeMetricsAspect.ACTIVE)
+          .tags("method", "deleteEmployee").gauge().value());
+      return true;
+    });
+
+    // when
+    employeeService.deleteEmployee(1L);
+
+    //then
+    assertThat(activeDuringCall.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void givenInheritedRepositoryMethod_whenCalled_thenTaggedWithEmployeeRepository() {
+    // given
+    EmployeeRepository repository = proxy(mock(EmployeeRepository.class), EmployeeRepository.class);
+
+    // when
+    repository.findById(1L);
+
+    //then
+    assertThat(registry.get(EmployeeMetricsAspect.CALLS)
+        .tags("layer", "repository", "class", "EmployeeRepository", "method", "findById")
+        .timer().count()).isEqualTo(1);
+  }
+}
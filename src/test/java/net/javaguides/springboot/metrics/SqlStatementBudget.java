@@ -0,0 +1,46 @@
+package net.javaguides.springboot.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+// MockMvc expectations on the SQL a request ran, read from the headers SqlStatisticsFilter writes:
+//   mockMvc.perform(post("/api/employees")...).andExpect(SqlStatementBudget.atMost(1));
+// Keeps N+1 selects and reads before writes from creeping back into a handler unnoticed.
+public final class SqlStatementBudget {
+
+  private SqlStatementBudget() {
+  }
+
+  public static ResultMatcher atMost(int statements) {
+    return result -> assertThat(statements(result.getResponse().getHeader(SqlStatisticsFilter.STATEMENTS_HEADER)))
+        .as("SQL statements run by %s", describe(result.getRequest()))
+        .isLessThanOrEqualTo(statements);
+  }
+
+  public static ResultMatcher exactly(int statements) {
+    return result -> assertThat(statements(result.getResponse().getHeader(SqlStatisticsFilter.STATEMENTS_HEADER)))
+        .as("SQL statements run by %s", describe(result.getRequest()))
+        .isEqualTo(statements);
+  }
+
+  public static ResultMatcher rowsAtMost(long rows) {
+    return result -> assertThat(Long.parseLong(header(result.getResponse().getHeader(SqlStatisticsFilter.ROWS_HEADER))))
+        .as("rows read by %s", describe(result.getRequest()))
+        .isLessThanOrEqualTo(rows);
+  }
+
+  private static int statements(String header) {
+    return Integer.parseInt(header(header));
+  }
+
+  private static String header(String value) {
+    assertThat(value).as("SQL statistics header, is employee.sql-statistics.headers set?").isNotNull();
+    return value;
+  }
+
+  private static String describe(MockHttpServletRequest request) {
+    return request.getMethod() + " " + request.getRequestURI();
+  }
+}
@@ -0,0 +1,145 @@
+package net.javaguides.springboot.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import net.javaguides.springboot.config.SqlStatisticsConfig;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class SqlStatisticsFilterTests {
+
+  private DataSource dataSource;
+  private SqlStatisticsFilter filter;
+  private MockHttpServletResponse response;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:sql-statistics;DB_CLOSE_DELAY=-1");
+    dataSource = (DataSource) SqlStatisticsConfig.sqlStatisticsDataSourcePostProcessor()
+        .postProcessAfterInitialization(h2, "dataSource");
+    filter = new SqlStatisticsFilter(true);
+    response = new MockHttpServletResponse();
+
+    try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists employees");
+      statement.execute("create table employees (id bigint primary key, email varchar(255))");
+      statement.execute("insert into employees values (1, 'a@gmail.com'), (2, 'b@gmail.com'), (3, 'c@gmail.com')");
+    }
+  }
+
+  private void perform(JdbcWork work) throws Exception {
+    MockFilterChain chain = new MockFilterChain() {
+      @Override
+      public void doFilter(ServletRequest request, ServletResponse response) {
+        try (Connection connection = dataSource.getConnection()) {
+          work.run(connection);
+          response.getWriter().write("done");
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    };
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/employees"), response, chain);
+  }
+
+  @Test
+  public void givenQueries_whenRequestRuns_thenStatementsAndRowsAreReported() throws Exception {
+    // when
+    perform(connection -> {
+      try (Statement statement = connection.createStatement();
+          ResultSet rows = statement.executeQuery("select id from employees")) {
+        while (rows.next()) {
+        }
+      }
+      try (PreparedStatement statement = connection.prepareStatement("select email from employees where id = ?")) {
+        statement.setLong(1, 1L);
+        try (ResultSet rows = statement.executeQuery()) {
+          rows.next();
+        }
+      }
+    });
+
+    //then
+    assertThat(response.getHeader(SqlStatisticsFilter.STATEMENTS_HEADER)).isEqualTo("2");
+    assertThat(response.getHeader(SqlStatisticsFilter.ROWS_HEADER)).isEqualTo("4");
+    assertThat(response.getHeader(SqlStatisticsFilter.TIME_HEADER)).isNotNull();
+  }
+
+  @Test
+  public void givenBatch_whenRequestRuns_thenBatchCountsAsOneStatement() throws Exception {
+    // when
+    perform(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement("delete from employees where id = ?")) {
+        for (long id = 1; id <= 3; id++) {
+          statement.setLong(1, id);
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    });
+
+    //then
+    assertThat(response.getHeader(SqlStatisticsFilter.STATEMENTS_HEADER)).isEqualTo("1");
+    assertThat(response.getHeader(SqlStatisticsFilter.ROWS_HEADER)).isEqualTo("0");
+  }
+
+  @Test
+  public void givenHeadersOff_whenRequestRuns_thenNoStatisticsHeaders() throws Exception {
+    // given
+    filter = new SqlStatisticsFilter(false);
+
+    // when
+    perform(connection -> {
+      try (Statement statement = connection.createStatement()) {
+        statement.executeQuery("select id from employees").close();
+      }
+    });
+
+    //then
+    assertThat(response.getHeaderNames()).noneMatch(name -> name.startsWith("X-SQL-"));
+    assertThat(response.getContentAsString()).isEqualTo("done");
+  }
+
+  @Test
+  public void givenNoRequest_whenStatementRuns_thenNothingIsRecorded() throws Exception {
+    // when
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.executeQuery("select id from employees").close();
+    }
+
+    //then
+    assertThat(SqlStatistics.current()).isNull();
+  }
+
+  @Test
+  public void givenFinishedRequest_whenStatementRuns_thenItIsNotAttributedToTheRequest() throws Exception {
+    // given
+    perform(connection -> {
+    });
+
+    // when
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.executeQuery("select id from employees").close();
+    }
+
+    //then
+    assertThat(SqlStatistics.current()).isNull();
+    assertThat(response.getHeader(SqlStatisticsFilter.STATEMENTS_HEADER)).isEqualTo("0");
+  }
+
+  private interface JdbcWork {
+    void run(Connection connection) throws Exception;
+  }
+}
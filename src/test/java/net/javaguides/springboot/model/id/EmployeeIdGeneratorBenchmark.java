@@ -0,0 +1,95 @@
+package net.javaguides.springboot.model.id;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Insert throughput per id strategy on an embedded H2 database, persisting and flushing in JDBC
+// sized chunks the same way EmployeeServiceImpl.saveEmployees does.
+// Not part of the regular build, run with: mvn test -Dtest=EmployeeIdGeneratorBenchmark
+public class EmployeeIdGeneratorBenchmark {
+  private static final int ROWS = 20_000;
+  private static final int RUNS = 5;
+  private static final int FLUSH_EVERY = 100;
+
+  @Nested
+  @DataJpaTest(properties = {
+      "spring.jpa.show-sql=false",
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn",
+      "spring.jpa.mapping-resources=benchmark/employee-identity-orm.xml"})
+  class Identity extends InsertRun {
+  }
+
+  @Nested
+  @DataJpaTest(properties = {
+      "spring.jpa.show-sql=false",
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn",
+      "spring.jpa.properties.employee.id.strategy=sequence"})
+  class PooledLoSequence extends InsertRun {
+  }
+
+  @Nested
+  @DataJpaTest(properties = {
+      "spring.jpa.show-sql=false",
+      "spring.jpa.properties.hibernate.generate_statistics=true",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn",
+      "spring.jpa.properties.employee.id.strategy=tsid"})
+  class Tsid extends InsertRun {
+  }
+
+  // Every run commits on its own, like a real request, instead of piling up in one test transaction
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  abstract static class InsertRun {
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void insertThroughput() {
+      Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+      for (int run = 0; run < RUNS; run++) {
+        int offset = run * ROWS;
+        statistics.clear();
+
+        long start = System.nanoTime();
+        transaction.executeWithoutResult(status -> {
+          for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email((offset + i) + "@gmail.com")
+                .build());
+            if ((i + 1) % FLUSH_EVERY == 0) {
+              entityManager.flush();
+              entityManager.clear();
+            }
+          }
+        });
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf("%-16s run %d: %,d rows in %,d ms = %,d rows/s, %,d JDBC statements prepared%n",
+            getClass().getSimpleName(), run, ROWS, elapsedMillis, ROWS * 1000L / elapsedMillis,
+            statistics.getPrepareStatementCount());
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package net.javaguides.springboot.model.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// A row inserted with an AUTO_INCREMENT-era id before the first generated one; each nested class has a context,
+// and so a generator, of its own. Not transactional: the generator reads max(id) on a connection of its own
+public class EmployeeIdGeneratorTests {
+  private static final long EXISTING_ID = 500;
+  // Where a TSID written by the reactive profile would be
+  private static final long TSID_SIZED_ID = 1L << 60;
+
+  abstract static class ExistingRows {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected long existingId() {
+      return EXISTING_ID;
+    }
+
+    @AfterEach
+    public void tearDown() {
+      jdbcTemplate.update("delete from employees");
+    }
+
+    @Test
+    public void givenExistingRowAboveSequence_whenSave_thenIdIsPastIt() {
+      // given
+      jdbcTemplate.update("insert into employees (id, first_name, last_name, email) values (?, ?, ?, ?)",
+          existingId(), "Existing", "Employee", "existing@gmail.com");
+
+      // when
+      Employee first = employeeRepository.saveAndFlush(employee("first@gmail.com"));
+      Employee second = employeeRepository.saveAndFlush(employee("second@gmail.com"));
+
+      //then
+      assertThat(first.getId()).isGreaterThan(existingId());
+      assertThat(second.getId()).isGreaterThan(first.getId());
+    }
+
+    private static Employee employee(String email) {
+      return Employee.builder()
+          .firstName("Nicolai")
+          .lastName("Mar")
+          .email(email)
+          .build();
+    }
+  }
+
+  // H2 has real sequences
+  @Nested
+  @DataJpaTest(properties = "spring.jpa.properties.employee.id.increment-size=50")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  class PhysicalSequence extends ExistingRows {
+  }
+
+  // Far too many ids to draw and drop: the sequence is moved past them in one step
+  @Nested
+  @DataJpaTest(properties = "spring.jpa.properties.employee.id.increment-size=20")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  class PhysicalSequenceFarBehind extends ExistingRows {
+    @Override
+    protected long existingId() {
+      return TSID_SIZED_ID;
+    }
+  }
+
+  // MySQL has none, so employees_seq is a table and is moved past max(id) in one update
+  @Nested
+  @DataJpaTest(properties = {
+      "spring.datasource.url=jdbc:h2:mem:id-seed-table;MODE=MySQL;DB_CLOSE_DELAY=-1",
+      "spring.datasource.username=sa",
+      "spring.datasource.password=",
+      "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+  })
+  @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  class SequenceTable extends ExistingRows {
+  }
+}
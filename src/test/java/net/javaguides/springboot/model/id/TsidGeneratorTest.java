@@ -0,0 +1,49 @@
+package net.javaguides.springboot.model.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class TsidGeneratorTest {
+
+  @Test
+  public void givenOneNode_whenNext_thenIdsAreStrictlyIncreasing() {
+    // given
+    TsidGenerator generator = new TsidGenerator(1);
+
+    // when
+    long previous = generator.next();
+    for (int i = 0; i < 100_000; i++) {
+      long next = generator.next();
+
+      //then
+      assertThat(next).isGreaterThan(previous);
+      previous = next;
+    }
+  }
+
+
+  @Test
+  public void givenTwoNodes_whenNext_thenNodeIdIsEncoded() {
+    // given
+    TsidGenerator first = new TsidGenerator(1);
+    TsidGenerator second = new TsidGenerator(2);
+
+    // when
+    long firstId = first.next();
+    long secondId = second.next();
+
+    //then
+    long nodeMask = TsidGenerator.MAX_NODE << TsidGenerator.COUNTER_BITS;
+    assertThat((firstId & nodeMask) >>> TsidGenerator.COUNTER_BITS).isEqualTo(1);
+    assertThat((secondId & nodeMask) >>> TsidGenerator.COUNTER_BITS).isEqualTo(2);
+    assertThat(firstId).isPositive();
+  }
+
+
+  @Test
+  public void givenNodeOutOfRange_whenCreate_thenThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> new TsidGenerator(TsidGenerator.MAX_NODE + 1));
+  }
+}
@@ -0,0 +1,160 @@
+package net.javaguides.springboot.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.springboot.model.Employee;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.orm.jpa.HibernateMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Every repository call runs in its own transaction, so hits come from the shared caches and not the session
+@DataJpaTest
+@ActiveProfiles("l2cache")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+    CompositeMeterRegistryAutoConfiguration.class, HibernateMetricsAutoConfiguration.class})
+public class EmployeeRepositoryCacheTests {
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Statistics statistics;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    // given
+    employee = employeeRepository.save(
+        Employee.builder()
+            .firstName("Nicolai")
+            .lastName("Mar")
+            .email("marunev@gmail.com")
+            .build());
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    employeeRepository.deleteAllInBatch();
+  }
+
+  @DisplayName("JUnit second-level cache for findById")
+  @Test
+  void givenCachedEmployee_whenFindById_thenNoStatementIsExecuted() {
+    // when
+    employeeRepository.findById(employee.getId());
+    long statements = statistics.getPrepareStatementCount();
+    Employee found = employeeRepository.findById(employee.getId()).orElseThrow();
+
+    //then
+    Assertions.assertThat(found.getEmail()).isEqualTo("marunev@gmail.com");
+    Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    Assertions.assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+  }
+
+  @DisplayName("JUnit query cache for JPQL finder")
+  @Test
+  void givenCachedQuery_whenFindByJPQL_thenNoStatementIsExecuted() {
+    // when
+    employeeRepository.findByJPQL("Nicolai", "Mar");
+    long statements = statistics.getPrepareStatementCount();
+    Employee found = employeeRepository.findByJPQL("Nicolai", "Mar");
+
+    //then
+    Assertions.assertThat(found.getId()).isEqualTo(employee.getId());
+    Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+  }
+
+  @DisplayName("JUnit query cache for native finder")
+  @Test
+  void givenCachedQuery_whenFindByNativeSQL_thenNoStatementIsExecuted() {
+    // when
+    employeeRepository.findByNativeSQLNamedParameters("Nicolai", "Mar");
+    long statements = statistics.getPrepareStatementCount();
+    Employee found = employeeRepository.findByNativeSQLNamedParameters("Nicolai", "Mar");
+
+    //then
+    Assertions.assertThat(found.getId()).isEqualTo(employee.getId());
+    Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    Assertions.assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+  }
+
+  @DisplayName("JUnit caches are invalidated by save")
+  @Test
+  void givenCachedEmployee_whenSave_thenFindersReturnNewValues() {
+    // given
+    employeeRepository.findById(employee.getId());
+    employeeRepository.findByEmail("marunev@gmail.com");
+
+    // when
+    employee.setEmail("ram@gmail.com");
+    employeeRepository.save(employee);
+
+    //then
+    Assertions.assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getEmail())
+        .isEqualTo("ram@gmail.com");
+    Assertions.assertThat(employeeRepository.findByEmail("marunev@gmail.com")).isEmpty();
+  }
+
+  @DisplayName("JUnit caches are invalidated by bulk update and delete")
+  @Test
+  void givenCachedEmployee_whenPatchAndDelete_thenFindersReturnNewValues() {
+    // given
+    employeeRepository.findById(employee.getId());
+    employeeRepository.findByNativeSQL("Nicolai", "Mar");
+
+    // when
+    employeeRepository.patchEmployee(employee.getId(), null, null, "ram@gmail.com");
+
+    //then
+    Assertions.assertThat(employeeRepository.findById(employee.getId()).orElseThrow().getEmail())
+        .isEqualTo("ram@gmail.com");
+    Assertions.assertThat(employeeRepository.findByNativeSQL("Nicolai", "Mar").getEmail())
+        .isEqualTo("ram@gmail.com");
+
+    // when
+    employeeRepository.deleteEmployeeById(employee.getId());
+
+    //then
+    Assertions.assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    Assertions.assertThat(employeeRepository.findByNativeSQL("Nicolai", "Mar")).isNull();
+  }
+
+  @DisplayName("JUnit cache region statistics are exported")
+  @Test
+  void givenCachedEmployee_whenFindById_thenRegionMetricsArePublished() {
+    // when
+    employeeRepository.findById(employee.getId());
+    employeeRepository.findById(employee.getId());
+
+    //then
+    Assertions.assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+            .tag("region", Employee.class.getName())
+            .tag("result", "hit")
+            .functionCounter())
+        .isNotNull();
+  }
+}
@@ -0,0 +1,118 @@
+package net.javaguides.springboot.repository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Runs EXPLAIN on the SQL each name finder actually sends, so a finder that stops using an index fails here
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "net.javaguides.springboot.repository.EmployeeRepositoryQueryPlanTests$RecordingStatementInspector")
+public class EmployeeRepositoryQueryPlanTests {
+
+  private static final String FIRST_NAME = "Nicolai";
+  private static final String LAST_NAME = "Mar";
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void setup() {
+    // given
+    employeeRepository.saveAndFlush(
+        Employee.builder()
+            .firstName(FIRST_NAME)
+            .lastName(LAST_NAME)
+            .email("marunev@gmail.com")
+            .build());
+    RecordingStatementInspector.STATEMENTS.clear();
+  }
+
+  @DisplayName("JUnit query plan for JPQL with index parameters")
+  @Test
+  void whenFindByJPQL_thenUsesNameIndex() {
+    assertUsesNameIndex(() -> employeeRepository.findByJPQL(FIRST_NAME, LAST_NAME));
+  }
+
+  @DisplayName("JUnit query plan for JPQL with named parameters")
+  @Test
+  void whenFindByJPQLNamedParam_thenUsesNameIndex() {
+    assertUsesNameIndex(() -> employeeRepository.findByJPQLNamedParam(FIRST_NAME, LAST_NAME));
+  }
+
+  @DisplayName("JUnit query plan for native SQL")
+  @Test
+  void whenFindByNativeSQL_thenUsesNameIndex() {
+    assertUsesNameIndex(() -> employeeRepository.findByNativeSQL(FIRST_NAME, LAST_NAME));
+  }
+
+  @DisplayName("JUnit query plan for native SQL with named parameters")
+  @Test
+  void whenFindByNativeSQLNamedParameters_thenUsesNameIndex() {
+    assertUsesNameIndex(() -> employeeRepository.findByNativeSQLNamedParameters(FIRST_NAME, LAST_NAME));
+  }
+
+  @DisplayName("JUnit query plan for the directory projection by last name")
+  @Test
+  void whenFindDirectoryByLastName_thenSelectsNamesThroughNameIndex() {
+    // when
+    List<EmployeeDto> found = employeeRepository.findDirectoryByLastName(LAST_NAME, PageRequest.ofSize(10));
+    String sql = RecordingStatementInspector.lastSelect();
+    String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, LAST_NAME, 10);
+
+    //then
+    Assertions.assertThat(found).containsExactly(new EmployeeDto(FIRST_NAME, LAST_NAME));
+    Assertions.assertThat(sql).doesNotContainIgnoringCase("email");
+    Assertions.assertThat(plan)
+        .doesNotContainIgnoringCase("tableScan")
+        .containsIgnoringCase(Employee.NAME_INDEX);
+  }
+
+  private void assertUsesNameIndex(Supplier<Employee> finder) {
+    // when
+    Employee found = finder.get();
+    String sql = RecordingStatementInspector.lastSelect();
+    String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, FIRST_NAME, LAST_NAME);
+
+    //then
+    Assertions.assertThat(found).isNotNull();
+    Assertions.assertThat(plan)
+        .doesNotContainIgnoringCase("tableScan")
+        .containsIgnoringCase(Employee.NAME_INDEX);
+  }
+
+  public static class RecordingStatementInspector implements StatementInspector {
+
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+
+    static String lastSelect() {
+      for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+        String sql = STATEMENTS.get(i);
+        if (sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+          return sql;
+        }
+      }
+      throw new AssertionError("No select statement was recorded");
+    }
+  }
+}
@@ -2,14 +2,19 @@ package net.javaguides.springboot.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.model.EmployeeDto;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 @DataJpaTest
 public class EmployeeRepositoryTests {
@@ -17,6 +22,9 @@ public class EmployeeRepositoryTests {
   @Autowired
   private EmployeeRepository employeeRepository;
 
+  @Autowired
+  private TestEntityManager entityManager;
+
   private Employee employee;
 
   @BeforeEach
@@ -82,6 +90,157 @@ public class EmployeeRepositoryTests {
   }
 
 
+  // JUnit keyset page
+  @DisplayName("JUnit keyset page after cursor")
+  @Test
+  void givenEmployeeList_whenFindPageAfter_thenReturnNextRowsInIdOrder() {
+    //given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+
+    Employee employee3 =
+        Employee.builder()
+            .firstName("Kristian")
+            .lastName("Ulmanu")
+            .email("ulmanu@gmail.com")
+            .build();
+
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee2);
+    Employee third = employeeRepository.save(employee3);
+
+    //when
+    List<Employee> page = employeeRepository.findPageAfter(first.getId(), PageRequest.ofSize(1));
+
+    //then
+    Assertions.assertThat(page).extracting(Employee::getId).containsExactly(second.getId());
+    Assertions.assertThat(employeeRepository.findPageAfter(second.getId(), PageRequest.ofSize(5)))
+        .extracting(Employee::getId).containsExactly(third.getId());
+  }
+
+
+  // JUnit stream all
+  @DisplayName("JUnit stream all through a cursor")
+  @Test
+  void givenEmployeeList_whenStreamAll_thenStreamEmployeesInIdOrder() {
+    //given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee2);
+
+    //when
+    List<Long> streamedIds;
+    try (Stream<Employee> employees = employeeRepository.streamAll()) {
+      streamedIds = employees.map(Employee::getId).toList();
+    }
+
+    //then
+    Assertions.assertThat(streamedIds).containsExactly(first.getId(), second.getId());
+  }
+
+
+  // JUnit next cursor probe
+  @DisplayName("JUnit find ids after cursor")
+  @Test
+  void givenEmployeeList_whenFindIdsAfter_thenReturnIdAtPageEnd() {
+    //given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee2);
+
+    //when
+    List<Long> ids = employeeRepository.findIdsAfter(0L, PageRequest.of(1, 1));
+
+    //then
+    Assertions.assertThat(ids).containsExactly(second.getId());
+    Assertions.assertThat(employeeRepository.findIdsAfter(first.getId(), PageRequest.of(1, 1))).isEmpty();
+  }
+
+
+  // JUnit stream page after cursor
+  @DisplayName("JUnit stream page after cursor")
+  @Test
+  void givenEmployeeList_whenStreamPageAfter_thenStreamNextRowsInIdOrder() {
+    //given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee2);
+
+    //when
+    List<Long> streamedIds;
+    try (Stream<Employee> employees = employeeRepository.streamPageAfter(first.getId(), PageRequest.ofSize(5))) {
+      streamedIds = employees.map(Employee::getId).toList();
+    }
+
+    //then
+    Assertions.assertThat(streamedIds).containsExactly(second.getId());
+  }
+
+
+  // JUnit directory projection
+  @DisplayName("JUnit directory page as EmployeeDto projections")
+  @Test
+  void givenEmployeeList_whenFindDirectoryPageAfter_thenReturnNamesInIdOrder() {
+    //given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+
+    Employee first = employeeRepository.save(employee);
+    employeeRepository.save(employee2);
+
+    //when
+    List<EmployeeDto> page = employeeRepository.findDirectoryPageAfter(first.getId(), PageRequest.ofSize(5));
+
+    //then
+    Assertions.assertThat(page).containsExactly(new EmployeeDto("John", "Cena"));
+  }
+
+
+  // JUnit directory entry
+  @DisplayName("JUnit directory entry by id without a managed entity")
+  @Test
+  void givenEmployee_whenFindDirectoryEntryById_thenReturnNamesOnly() {
+    //given
+    Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+    entityManager.clear();
+
+    //when
+    Optional<EmployeeDto> entry = employeeRepository.findDirectoryEntryById(savedEmployee.getId());
+
+    //then
+    Assertions.assertThat(entry).contains(new EmployeeDto(employee.getFirstName(), employee.getLastName()));
+    Assertions.assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+        .isZero();
+    Assertions.assertThat(employeeRepository.findDirectoryEntryById(savedEmployee.getId() + 1)).isEmpty();
+  }
+
+
   // JUnit find By Id
   @DisplayName("JUnit find By Id")
   @Test
@@ -135,6 +294,42 @@ public class EmployeeRepositoryTests {
   }
 
 
+  // JUnit unique email
+  @DisplayName("JUnit unique index on email")
+  @Test
+  void givenEmployee_whenSaveEmployeeWithSameEmail_thenThrowsException() {
+    // given
+    employeeRepository.saveAndFlush(employee);
+    Employee sameEmail =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email(employee.getEmail())
+            .build();
+
+    // when / then
+    Assertions.assertThatThrownBy(() -> employeeRepository.saveAndFlush(sameEmail))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasMessageContaining(Employee.EMAIL_UNIQUE_INDEX.toUpperCase());
+  }
+
+
+  // JUnit find existing emails
+  @DisplayName("JUnit find existing emails with one IN query")
+  @Test
+  void givenEmployee_whenFindExistingEmails_thenReturnOnlyStoredEmails() {
+    //given
+    employeeRepository.save(employee);
+
+    //when
+    List<String> existingEmails =
+        employeeRepository.findExistingEmails(List.of("marunev@gmail.com", "unknown@gmail.com"));
+
+    //then
+    Assertions.assertThat(existingEmails).containsExactly("marunev@gmail.com");
+  }
+
+
   // JUnit update
   @DisplayName("JUnit update method")
   @Test
@@ -149,9 +344,9 @@ public class EmployeeRepositoryTests {
 //            .build();
 
     // when
-    employeeRepository.save(employee);
+    Employee savedEmployee = employeeRepository.save(employee);
 
-    Employee newEmployee = employeeRepository.findById(1L).get();
+    Employee newEmployee = employeeRepository.findById(savedEmployee.getId()).get();
     newEmployee.setFirstName("UpdatedNicolai");
     newEmployee.setLastName("UpdatedMar");
     newEmployee.setEmail("UpdatedMarunev@gmail.com");
@@ -167,6 +362,46 @@ public class EmployeeRepositoryTests {
   }
 
 
+  // JUnit patch
+  @DisplayName("JUnit patch with a single update statement")
+  @Test
+  void givenEmployee_whenPatchEmployee_thenOnlyGivenColumnsChange() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int updatedRows = employeeRepository.patchEmployee(savedEmployee.getId(), null, "UpdatedMar", null);
+    Employee patchedEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+
+    //then
+    Assertions.assertThat(updatedRows).isEqualTo(1);
+    Assertions.assertThat(patchedEmployee.getFirstName()).isEqualTo("Nicolai");
+    Assertions.assertThat(patchedEmployee.getLastName()).isEqualTo("UpdatedMar");
+    Assertions.assertThat(patchedEmployee.getEmail()).isEqualTo("marunev@gmail.com");
+    Assertions.assertThat(employeeRepository.patchEmployee(-1L, "Nobody", null, null)).isZero();
+  }
+
+
+  // JUnit replace
+  @DisplayName("JUnit replace with a single update statement")
+  @Test
+  void givenEmployee_whenReplaceEmployee_thenEveryColumnChanges() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int updatedRows = employeeRepository.replaceEmployee(savedEmployee.getId(), "John", "Cena", "cena@gmail.com");
+    Employee replacedEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+
+    //then
+    Assertions.assertThat(updatedRows).isEqualTo(1);
+    Assertions.assertThat(replacedEmployee.getFirstName()).isEqualTo("John");
+    Assertions.assertThat(replacedEmployee.getLastName()).isEqualTo("Cena");
+    Assertions.assertThat(replacedEmployee.getEmail()).isEqualTo("cena@gmail.com");
+    Assertions.assertThat(employeeRepository.replaceEmployee(-1L, "Nobody", "Nobody", "nobody")).isZero();
+  }
+
+
   // JUnit delete
   @DisplayName("JUnit delete method")
   @Test
@@ -190,6 +425,47 @@ public class EmployeeRepositoryTests {
   }
 
 
+  // JUnit delete by id without loading
+  @DisplayName("JUnit delete by id with a single statement")
+  @Test
+  void givenEmployee_whenDeleteEmployeeById_thenReturnAffectedRows() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int deletedRows = employeeRepository.deleteEmployeeById(savedEmployee.getId());
+
+    //then
+    Assertions.assertThat(deletedRows).isEqualTo(1);
+    Assertions.assertThat(employeeRepository.findById(savedEmployee.getId())).isEmpty();
+    Assertions.assertThat(employeeRepository.deleteEmployeeById(savedEmployee.getId())).isZero();
+  }
+
+
+  // JUnit bulk delete
+  @DisplayName("JUnit bulk delete by ids")
+  @Test
+  void givenEmployeeList_whenDeleteEmployeesByIds_thenDeleteOnlyGivenIds() {
+    // given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("John")
+            .lastName("Cena")
+            .email("cena@gmail.com")
+            .build();
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee2);
+
+    // when
+    int deletedRows = employeeRepository.deleteEmployeesByIds(List.of(first.getId(), -1L));
+
+    //then
+    Assertions.assertThat(deletedRows).isEqualTo(1);
+    Assertions.assertThat(employeeRepository.findAll()).extracting(Employee::getId)
+        .containsExactly(second.getId());
+  }
+
+
   // JUnit custom JPQL with index
   @DisplayName("JUnit custom JPQL with index")
   @Test
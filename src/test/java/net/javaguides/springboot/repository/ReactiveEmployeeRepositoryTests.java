@@ -0,0 +1,136 @@
+package net.javaguides.springboot.repository;
+
+import java.util.List;
+import net.javaguides.springboot.config.ReactiveConfig;
+import net.javaguides.springboot.model.Employee;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@DataR2dbcTest(properties = {
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive-repository",
+    "spring.sql.init.schema-locations=classpath:reactive/schema.sql"})
+@ActiveProfiles("reactive")
+@Import(ReactiveConfig.class)
+public class ReactiveEmployeeRepositoryTests {
+
+  @Autowired
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Autowired
+  private R2dbcEntityTemplate entityTemplate;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    // given
+    employeeRepository.deleteAll().block();
+    employee = insert(1, "Nicolai", "Mar", "marunev@gmail.com");
+  }
+
+  private Employee insert(long id, String firstName, String lastName, String email) {
+    return entityTemplate.insert(Employee.builder()
+        .id(id)
+        .firstName(firstName)
+        .lastName(lastName)
+        .email(email)
+        .build()).block();
+  }
+
+  @DisplayName("JUnit findByEmail")
+  @Test
+  void givenEmployee_whenFindByEmail_thenReturnEmployee() {
+    StepVerifier.create(employeeRepository.findByEmail("marunev@gmail.com"))
+        .assertNext(found -> Assertions.assertThat(found.getId()).isEqualTo(employee.getId()))
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit findExistingEmails")
+  @Test
+  void givenEmployee_whenFindExistingEmails_thenReturnOnlyTakenEmails() {
+    StepVerifier.create(employeeRepository.findExistingEmails(List.of("marunev@gmail.com", "free@gmail.com")))
+        .expectNext("marunev@gmail.com")
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit keyset page and next cursor")
+  @Test
+  void givenEmployees_whenFindPageAfter_thenReturnPageAndCursor() {
+    // given
+    insert(2, "John", "Cena", "cena@gmail.com");
+    insert(3, "Kristian", "Ronaldo", "ronaldo@gmail.com");
+
+    //then
+    StepVerifier.create(employeeRepository.findPageAfter(1, 1).map(Employee::getId))
+        .expectNext(2L)
+        .verifyComplete();
+    StepVerifier.create(employeeRepository.findIdAfter(0, 1))
+        .expectNext(2L)
+        .verifyComplete();
+    StepVerifier.create(employeeRepository.findIdAfter(1, 2))
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit streamAll")
+  @Test
+  void givenEmployees_whenStreamAll_thenReturnEmployeesInIdOrder() {
+    // given
+    insert(3, "Kristian", "Ronaldo", "ronaldo@gmail.com");
+    insert(2, "John", "Cena", "cena@gmail.com");
+
+    //then
+    StepVerifier.create(employeeRepository.streamAll().map(Employee::getId))
+        .expectNext(1L, 2L, 3L)
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit patch keeps missing fields")
+  @Test
+  void givenEmployee_whenPatchEmployee_thenOnlyGivenFieldsChange() {
+    StepVerifier.create(employeeRepository.patchEmployee(employee.getId(), null, null, "ram@gmail.com")
+            .then(employeeRepository.findById(employee.getId())))
+        .assertNext(patched -> {
+          Assertions.assertThat(patched.getFirstName()).isEqualTo("Nicolai");
+          Assertions.assertThat(patched.getEmail()).isEqualTo("ram@gmail.com");
+        })
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit delete by id and by ids")
+  @Test
+  void givenEmployees_whenDelete_thenReturnDeletedCount() {
+    // given
+    insert(2, "John", "Cena", "cena@gmail.com");
+    insert(3, "Kristian", "Ronaldo", "ronaldo@gmail.com");
+
+    //then
+    StepVerifier.create(employeeRepository.deleteEmployeeById(1))
+        .expectNext(1)
+        .verifyComplete();
+    StepVerifier.create(employeeRepository.deleteEmployeesByIds(List.of(2L, 3L, 4L)))
+        .expectNext(2)
+        .verifyComplete();
+    StepVerifier.create(employeeRepository.count())
+        .expectNext(0L)
+        .verifyComplete();
+  }
+
+  @DisplayName("JUnit name finders")
+  @Test
+  void givenEmployee_whenFindByName_thenReturnEmployee() {
+    StepVerifier.create(Flux.concat(
+            employeeRepository.findByFirstNameAndLastName("Nicolai", "Mar"),
+            employeeRepository.findByNativeSQLNamedParameters("Nicolai", "Mar")))
+        .expectNextCount(2)
+        .verifyComplete();
+  }
+}
@@ -0,0 +1,199 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import net.javaguides.springboot.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Each test writes through one repository and reopens the directory in another, as a restart would
+public class InMemoryEmployeeRepositoryDurabilityTests {
+  @TempDir
+  Path directory;
+
+  private InMemoryEmployeeRepository employeeRepository;
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    if (employeeRepository != null) {
+      employeeRepository.close();
+    }
+  }
+
+  @Test
+  public void givenWritesWithoutSnapshot_whenReopen_thenReplayedFromChangeLog() throws IOException {
+    // given
+    InMemoryEmployeeRepository crashed = open();
+    Employee kept = crashed.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+    Employee deleted = crashed.save(employee("John", "Cena", "cena@gmail.com"));
+    crashed.patchEmployee(kept.getId(), null, "UpdatedMar", null);
+    crashed.deleteEmployeeById(deleted.getId());
+
+    // when: reopened without closing, so no snapshot was written
+    employeeRepository = open();
+
+    //then
+    assertThat(snapshotFile()).doesNotExist();
+    assertThat(employeeRepository.findAll()).singleElement().satisfies(e -> {
+      assertThat(e.getId()).isEqualTo(kept.getId());
+      assertThat(e.getLastName()).isEqualTo("UpdatedMar");
+    });
+    assertThat(employeeRepository.findByEmail("cena@gmail.com")).isEmpty();
+    assertThat(employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com")).getId())
+        .isGreaterThan(deleted.getId());
+  }
+
+  @Test
+  public void givenSnapshotAndLaterWrites_whenReopen_thenSnapshotPlusLogTail() throws IOException {
+    // given
+    InMemoryEmployeeRepository crashed = open();
+    Employee first = crashed.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+    crashed.snapshot();
+    Employee second = crashed.save(employee("John", "Cena", "cena@gmail.com"));
+    crashed.replaceEmployee(first.getId(), "Nicolai", "Mar", "nicolai@gmail.com");
+
+    // when
+    employeeRepository = open();
+
+    //then
+    assertThat(logSegments()).hasSize(2);
+    assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+        .containsExactly("nicolai@gmail.com", "cena@gmail.com");
+    assertThat(employeeRepository.findByFirstNameAndLastName("John", "Cena")).extracting(Employee::getId)
+        .containsExactly(second.getId());
+  }
+
+  @Test
+  public void givenSnapshot_whenWritten_thenCoveredLogSegmentsAreDeleted() throws IOException {
+    // given
+    employeeRepository = open();
+    for (int i = 0; i < 100; i++) {
+      employeeRepository.save(employee("First" + i, "Last", i + "@gmail.com"));
+    }
+
+    // when
+    employeeRepository.snapshot();
+
+    //then
+    assertThat(snapshotFile()).exists();
+    assertThat(logSegments()).singleElement().satisfies(segment -> assertThat(Files.size(segment)).isZero());
+  }
+
+  @Test
+  public void givenClosedRepository_whenReopen_thenLoadedFromSnapshotAlone() throws IOException {
+    // given
+    InMemoryEmployeeRepository closed = open();
+    Employee saved = closed.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+    closed.close();
+
+    // when
+    employeeRepository = open();
+
+    //then
+    assertThat(logSegments()).allSatisfy(segment -> assertThat(Files.size(segment)).isZero());
+    assertThat(employeeRepository.findById(saved.getId())).get().usingRecursiveComparison().isEqualTo(saved);
+  }
+
+  @Test
+  public void givenTornLastRecord_whenReopen_thenDroppedAndLaterWritesKept() throws IOException {
+    // given
+    InMemoryEmployeeRepository crashed = open();
+    crashed.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+    crashed.save(employee("John", "Cena", "cena@gmail.com"));
+    Path segment = logSegments().get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    // when
+    employeeRepository = open();
+    employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+    employeeRepository.close();
+    employeeRepository = open();
+
+    //then
+    assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+        .containsExactly("marunev@gmail.com", "ulmanu@gmail.com");
+  }
+
+  @Test
+  public void givenTornBatchRecord_whenReopen_thenNoneOfItsEmployeesKept() throws IOException {
+    // given
+    InMemoryEmployeeRepository crashed = open();
+    crashed.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+    crashed.insertAll(List.of(employee("John", "Cena", "cena@gmail.com"),
+        employee("Kristian", "Ulmanu", "ulmanu@gmail.com")));
+    Path segment = logSegments().get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    // when
+    employeeRepository = open();
+
+    //then
+    assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("marunev@gmail.com");
+  }
+
+  @Test
+  public void givenBatch_whenReopen_thenReplayedWithItsIds() throws IOException {
+    // given
+    InMemoryEmployeeRepository crashed = open();
+    List<Employee> batch = crashed.insertAll(List.of(employee("John", "Cena", "cena@gmail.com"),
+        employee("Kristian", "Ulmanu", "ulmanu@gmail.com")));
+
+    // when
+    employeeRepository = open();
+
+    //then
+    assertThat(employeeRepository.findAll()).usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(batch);
+  }
+
+  @Test
+  public void givenSnapshotInterval_whenItPasses_thenSnapshotWrittenInBackground() throws Exception {
+    // given
+    employeeRepository = new InMemoryEmployeeRepository(directory, 4, Duration.ofMillis(50), false);
+
+    // when
+    employeeRepository.save(employee("Nicolai", "Mar", "marunev@gmail.com"));
+
+    //then
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!Files.exists(snapshotFile()) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(snapshotFile()).exists();
+  }
+
+  private InMemoryEmployeeRepository open() throws IOException {
+    return new InMemoryEmployeeRepository(directory, 4, Duration.ZERO, true);
+  }
+
+  private Path snapshotFile() {
+    return directory.resolve(EmployeeSnapshot.FILE_NAME);
+  }
+
+  private List<Path> logSegments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+    }
+  }
+
+  private static Employee employee(String firstName, String lastName, String email) {
+    return Employee.builder()
+        .firstName(firstName)
+        .lastName(lastName)
+        .email(email)
+        .build();
+  }
+}
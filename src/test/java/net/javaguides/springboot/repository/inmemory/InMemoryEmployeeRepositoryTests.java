@@ -0,0 +1,420 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeDto;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// The EmployeeRepositoryTests cases against the in-memory engine, plus its indexes and concurrent writers
+public class InMemoryEmployeeRepositoryTests {
+
+  private InMemoryEmployeeRepository employeeRepository;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    employeeRepository = new InMemoryEmployeeRepository(4);
+
+    // given
+    employee =
+        Employee.builder()
+            .firstName("Nicolai")
+            .lastName("Mar")
+            .email("marunev@gmail.com")
+            .build();
+  }
+
+  @DisplayName("save assigns an id")
+  @Test
+  void givenEmployee_whenSave_thenSavedEmployee() {
+    // when
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    //then
+    Assertions.assertThat(savedEmployee).isNotNull();
+    Assertions.assertThat(savedEmployee.getId()).isGreaterThan(0);
+    Assertions.assertThat(employeeRepository.count()).isEqualTo(1);
+  }
+
+  @DisplayName("findAll in id order")
+  @Test
+  void givenEmployeeList_whenFindAll_thenReturnEmployeesList() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+    Employee third = employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+
+    //when
+    List<Employee> employeeList = employeeRepository.findAll();
+
+    //then
+    Assertions.assertThat(employeeList).extracting(Employee::getId)
+        .containsExactly(first.getId(), second.getId(), third.getId());
+  }
+
+  @DisplayName("keyset page after cursor")
+  @Test
+  void givenEmployeeList_whenFindPageAfter_thenReturnNextRowsInIdOrder() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+    Employee third = employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+
+    //when
+    List<Employee> page = employeeRepository.findPageAfter(first.getId(), 1);
+
+    //then
+    Assertions.assertThat(page).extracting(Employee::getId).containsExactly(second.getId());
+    Assertions.assertThat(employeeRepository.findPageAfter(second.getId(), 5))
+        .extracting(Employee::getId).containsExactly(third.getId());
+  }
+
+  @DisplayName("last id of a full page")
+  @Test
+  void givenEmployeeList_whenFindPageEndAfter_thenReturnIdAtPageEnd() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+
+    //when
+    Optional<Long> pageEnd = employeeRepository.findPageEndAfter(0L, 2);
+
+    //then
+    Assertions.assertThat(pageEnd).contains(second.getId());
+    Assertions.assertThat(employeeRepository.findPageEndAfter(first.getId(), 2)).isEmpty();
+  }
+
+  @DisplayName("each row after cursor, up to the limit")
+  @Test
+  void givenEmployeeList_whenForEachAfter_thenVisitNextRowsInIdOrder() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+    employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+
+    //when
+    List<Long> visitedIds = new ArrayList<>();
+    employeeRepository.forEachAfter(first.getId(), 1, e -> visitedIds.add(e.getId()));
+
+    //then
+    Assertions.assertThat(visitedIds).containsExactly(second.getId());
+  }
+
+  @DisplayName("directory page as EmployeeDto projections")
+  @Test
+  void givenEmployeeList_whenFindDirectoryPageAfter_thenReturnNamesInIdOrder() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+
+    //when
+    List<EmployeeDto> page = employeeRepository.findDirectoryPageAfter(first.getId(), 5);
+
+    //then
+    Assertions.assertThat(page).containsExactly(new EmployeeDto("John", "Cena"));
+  }
+
+  @DisplayName("directory entry by id")
+  @Test
+  void givenEmployee_whenFindDirectoryEntryById_thenReturnNamesOnly() {
+    //given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    //when
+    Optional<EmployeeDto> entry = employeeRepository.findDirectoryEntryById(savedEmployee.getId());
+
+    //then
+    Assertions.assertThat(entry).contains(new EmployeeDto("Nicolai", "Mar"));
+    Assertions.assertThat(employeeRepository.findDirectoryEntryById(savedEmployee.getId() + 1)).isEmpty();
+  }
+
+  @DisplayName("directory by last name from the name index, by first name")
+  @Test
+  void givenEmployeeList_whenFindDirectoryByLastName_thenReturnNamesOrderedByFirstName() {
+    //given
+    employeeRepository.save(employee("Zoe", "Mar", "zoe@gmail.com"));
+    employeeRepository.save(employee);
+    employeeRepository.save(employee("Anna", "Mar", "anna@gmail.com"));
+    employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+
+    //when
+    List<EmployeeDto> entries = employeeRepository.findDirectoryByLastName("Mar", 2);
+
+    //then
+    Assertions.assertThat(entries).containsExactly(new EmployeeDto("Anna", "Mar"), new EmployeeDto("Nicolai", "Mar"));
+    Assertions.assertThat(employeeRepository.findDirectoryByLastName("Nobody", 2)).isEmpty();
+  }
+
+  @DisplayName("find by first and last name follows renames")
+  @Test
+  void givenRenamedEmployee_whenFindByFirstNameAndLastName_thenOnlyCurrentNameMatches() {
+    //given
+    Employee savedEmployee = employeeRepository.save(employee);
+    employeeRepository.patchEmployee(savedEmployee.getId(), "John", null, null);
+
+    //when
+    List<Employee> byNewName = employeeRepository.findByFirstNameAndLastName("John", "Mar");
+
+    //then
+    Assertions.assertThat(byNewName).extracting(Employee::getId).containsExactly(savedEmployee.getId());
+    Assertions.assertThat(employeeRepository.findByFirstNameAndLastName("Nicolai", "Mar")).isEmpty();
+    Assertions.assertThat(employeeRepository.findDirectoryByLastName("Mar", 5))
+        .containsExactly(new EmployeeDto("John", "Mar"));
+  }
+
+  @DisplayName("find by id returns a copy")
+  @Test
+  void givenEmployee_whenFindById_thenReturnEmployees() {
+    //given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    //when
+    Employee employeeById = employeeRepository.findById(savedEmployee.getId()).orElseThrow();
+    employeeById.setFirstName("Changed");
+
+    //then
+    Assertions.assertThat(employeeById).usingRecursiveComparison().ignoringFields("firstName")
+        .isEqualTo(savedEmployee);
+    Assertions.assertThat(employeeRepository.findById(savedEmployee.getId()).orElseThrow().getFirstName())
+        .isEqualTo("Nicolai");
+  }
+
+  @DisplayName("find by email")
+  @Test
+  void givenEmployee_whenFindByEmail_thenReturnEmployees() {
+    //given
+    Employee expectedEmployee = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+
+    //when
+    Employee actualEmployeeByEmail = employeeRepository.findByEmail("cena@gmail.com").orElseThrow();
+
+    //then
+    Assertions.assertThat(actualEmployeeByEmail).usingRecursiveComparison().isEqualTo(expectedEmployee);
+    Assertions.assertThat(employeeRepository.findByEmail("unknown@gmail.com")).isEmpty();
+  }
+
+  @DisplayName("unique index on email")
+  @Test
+  void givenEmployee_whenSaveEmployeeWithSameEmail_thenThrowsException() {
+    // given
+    employeeRepository.save(employee);
+    Employee sameEmail = employee("John", "Cena", employee.getEmail());
+
+    // when / then
+    Assertions.assertThatThrownBy(() -> employeeRepository.save(sameEmail))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasMessageContaining(Employee.EMAIL_UNIQUE_INDEX);
+    Assertions.assertThat(employeeRepository.count()).isEqualTo(1);
+  }
+
+  @DisplayName("insertAll stores every employee with a new id")
+  @Test
+  void givenEmployeeList_whenInsertAll_thenAllStoredInOrder() {
+    // given
+    List<Employee> employees = List.of(employee, employee("John", "Cena", "cena@gmail.com"));
+
+    // when
+    employeeRepository.insertAll(employees);
+
+    //then
+    Assertions.assertThat(employeeRepository.findAll()).extracting(Employee::getId)
+        .containsExactly(employees.get(0).getId(), employees.get(1).getId());
+    Assertions.assertThat(employeeRepository.findByEmail("cena@gmail.com")).isPresent();
+  }
+
+  @DisplayName("insertAll stores nothing when one email is taken")
+  @Test
+  void givenTakenEmailInList_whenInsertAll_thenThrowsAndStoresNone() {
+    // given
+    employeeRepository.save(employee("Existing", "Employee", "cena@gmail.com"));
+    List<Employee> employees = List.of(employee, employee("John", "Cena", "cena@gmail.com"));
+
+    // when / then
+    Assertions.assertThatThrownBy(() -> employeeRepository.insertAll(employees))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasMessageContaining(Employee.EMAIL_UNIQUE_INDEX);
+    Assertions.assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+        .containsExactly("cena@gmail.com");
+    Assertions.assertThat(employeeRepository.findByEmail(employee.getEmail())).isEmpty();
+    Assertions.assertThat(employeeRepository.save(employee).getId()).isPositive();
+  }
+
+  @DisplayName("required columns")
+  @Test
+  void givenEmployeeWithoutEmail_whenSave_thenThrowsException() {
+    // given
+    employee.setEmail(null);
+
+    // when / then
+    Assertions.assertThatThrownBy(() -> employeeRepository.save(employee))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  @DisplayName("find existing emails")
+  @Test
+  void givenEmployee_whenFindExistingEmails_thenReturnOnlyStoredEmails() {
+    //given
+    employeeRepository.save(employee);
+
+    //when
+    List<String> existingEmails =
+        employeeRepository.findExistingEmails(List.of("marunev@gmail.com", "unknown@gmail.com"));
+
+    //then
+    Assertions.assertThat(existingEmails).containsExactly("marunev@gmail.com");
+  }
+
+  @DisplayName("save of a stored id replaces it and moves the email index")
+  @Test
+  void givenEmployee_whenUpdate_thenUpdateEmployee() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+    Employee newEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+    newEmployee.setFirstName("UpdatedNicolai");
+    newEmployee.setLastName("UpdatedMar");
+    newEmployee.setEmail("UpdatedMarunev@gmail.com");
+
+    // when
+    Employee updatedEmployee = employeeRepository.save(newEmployee);
+
+    //then
+    Assertions.assertThat(updatedEmployee.getId()).isEqualTo(savedEmployee.getId());
+    Assertions.assertThat(employeeRepository.findById(savedEmployee.getId()).get())
+        .usingRecursiveComparison().isEqualTo(newEmployee);
+    Assertions.assertThat(employeeRepository.findByEmail("marunev@gmail.com")).isEmpty();
+    Assertions.assertThat(employeeRepository.findByEmail("UpdatedMarunev@gmail.com")).isPresent();
+  }
+
+  @DisplayName("patch changes only the given columns")
+  @Test
+  void givenEmployee_whenPatchEmployee_thenOnlyGivenColumnsChange() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int updatedRows = employeeRepository.patchEmployee(savedEmployee.getId(), null, "UpdatedMar", null);
+    Employee patchedEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+
+    //then
+    Assertions.assertThat(updatedRows).isEqualTo(1);
+    Assertions.assertThat(patchedEmployee.getFirstName()).isEqualTo("Nicolai");
+    Assertions.assertThat(patchedEmployee.getLastName()).isEqualTo("UpdatedMar");
+    Assertions.assertThat(patchedEmployee.getEmail()).isEqualTo("marunev@gmail.com");
+    Assertions.assertThat(employeeRepository.patchEmployee(-1L, "Nobody", null, null)).isZero();
+  }
+
+  @DisplayName("patch to an email taken by another employee")
+  @Test
+  void givenTwoEmployees_whenPatchEmailToTheOther_thenThrowsAndKeepsBoth() {
+    // given
+    Employee first = employeeRepository.save(employee);
+    employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+
+    // when / then
+    Assertions.assertThatThrownBy(() -> employeeRepository.patchEmployee(first.getId(), null, null, "cena@gmail.com"))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasMessageContaining(Employee.EMAIL_UNIQUE_INDEX);
+    Assertions.assertThat(employeeRepository.findByEmail("marunev@gmail.com")).isPresent();
+    Assertions.assertThat(employeeRepository.findByEmail("cena@gmail.com").get().getFirstName()).isEqualTo("John");
+  }
+
+  @DisplayName("replace changes every column")
+  @Test
+  void givenEmployee_whenReplaceEmployee_thenEveryColumnChanges() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int updatedRows = employeeRepository.replaceEmployee(savedEmployee.getId(), "John", "Cena", "cena@gmail.com");
+    Employee replacedEmployee = employeeRepository.findById(savedEmployee.getId()).get();
+
+    //then
+    Assertions.assertThat(updatedRows).isEqualTo(1);
+    Assertions.assertThat(replacedEmployee.getFirstName()).isEqualTo("John");
+    Assertions.assertThat(replacedEmployee.getLastName()).isEqualTo("Cena");
+    Assertions.assertThat(replacedEmployee.getEmail()).isEqualTo("cena@gmail.com");
+    Assertions.assertThat(employeeRepository.replaceEmployee(-1L, "John", "Cena", "other@gmail.com")).isZero();
+  }
+
+  @DisplayName("delete by id frees the email")
+  @Test
+  void givenEmployee_whenDeleteEmployeeById_thenReturnAffectedRows() {
+    // given
+    Employee savedEmployee = employeeRepository.save(employee);
+
+    // when
+    int deletedRows = employeeRepository.deleteEmployeeById(savedEmployee.getId());
+
+    //then
+    Assertions.assertThat(deletedRows).isEqualTo(1);
+    Assertions.assertThat(employeeRepository.findById(savedEmployee.getId())).isEmpty();
+    Assertions.assertThat(employeeRepository.deleteEmployeeById(savedEmployee.getId())).isZero();
+    Assertions.assertThat(employeeRepository.save(employee("John", "Cena", "marunev@gmail.com")).getId())
+        .isGreaterThan(savedEmployee.getId());
+  }
+
+  @DisplayName("bulk delete by ids")
+  @Test
+  void givenEmployeeList_whenDeleteEmployeesByIds_thenDeleteOnlyGivenIds() {
+    //given
+    Employee first = employeeRepository.save(employee);
+    Employee second = employeeRepository.save(employee("John", "Cena", "cena@gmail.com"));
+    Employee third = employeeRepository.save(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+
+    //when
+    int deletedRows = employeeRepository.deleteEmployeesByIds(List.of(first.getId(), third.getId(), -1L));
+
+    //then
+    Assertions.assertThat(deletedRows).isEqualTo(2);
+    Assertions.assertThat(employeeRepository.findAll()).extracting(Employee::getId).containsExactly(second.getId());
+  }
+
+  @DisplayName("concurrent writers across stripes")
+  @Test
+  void givenConcurrentWriters_whenSaveAndDelete_thenIndexesMatchRows() throws Exception {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> writers = new ArrayList<>();
+
+    // when
+    for (int writer = 0; writer < 4; writer++) {
+      int w = writer;
+      writers.add(executor.submit(() -> {
+        for (int i = 0; i < 500; i++) {
+          Employee saved = employeeRepository.save(employee("First" + i, "Last" + w, w + "-" + i + "@gmail.com"));
+          if (i % 2 == 0) {
+            employeeRepository.deleteEmployeeById(saved.getId());
+          }
+        }
+      }));
+    }
+    for (Future<?> writer : writers) {
+      writer.get();
+    }
+    executor.shutdown();
+
+    //then
+    Assertions.assertThat(employeeRepository.count()).isEqualTo(1000);
+    Assertions.assertThat(employeeRepository.findAll()).hasSize(1000)
+        .allSatisfy(e -> Assertions.assertThat(employeeRepository.findByEmail(e.getEmail())).isPresent());
+    Assertions.assertThat(employeeRepository.findDirectoryByLastName("Last0", 1000)).hasSize(250);
+  }
+
+  private static Employee employee(String firstName, String lastName, String email) {
+    return Employee.builder()
+        .firstName(firstName)
+        .lastName(lastName)
+        .email(email)
+        .build();
+  }
+}
@@ -0,0 +1,57 @@
+package net.javaguides.springboot.repository.inmemory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LongMapTests {
+
+  @Test
+  public void givenRandomPutsAndRemoves_whenCompared_thenMatchesHashMap() {
+    // given
+    LongMap<String> map = new LongMap<>(8);
+    Map<Long, String> expected = new HashMap<>();
+    Random random = new Random(42);
+
+    // when: a small key range, so removals keep hitting the probe chains of present keys
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(2000) - 1000;
+      if (random.nextInt(3) == 0) {
+        assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+      } else {
+        assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+      }
+    }
+
+    //then
+    assertThat(map.size()).isEqualTo(expected.size());
+    for (long key = -1000; key < 1000; key++) {
+      assertThat(map.get(key)).isEqualTo(expected.get(key));
+    }
+    List<String> values = new ArrayList<>();
+    map.forEach(values::add);
+    assertThat(values).containsExactlyInAnyOrderElementsOf(expected.values());
+  }
+
+  @Test
+  public void givenSequentialIds_whenPut_thenGrowsAndFindsAll() {
+    // given
+    LongMap<Long> map = new LongMap<>(8);
+
+    // when
+    for (long id = 1; id <= 10_000; id++) {
+      map.put(id, id);
+    }
+
+    //then
+    assertThat(map.size()).isEqualTo(10_000);
+    assertThat(map.get(1)).isEqualTo(1L);
+    assertThat(map.get(10_000)).isEqualTo(10_000L);
+    assertThat(map.get(0)).isNull();
+  }
+}
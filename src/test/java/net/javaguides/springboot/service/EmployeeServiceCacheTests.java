@@ -0,0 +1,309 @@
+package net.javaguides.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.config.ReadYourWrites;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest(classes = {CacheConfig.class, EmployeeServiceImpl.class})
+@ImportAutoConfiguration({MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+    CompositeMeterRegistryAutoConfiguration.class, CacheMetricsAutoConfiguration.class})
+public class EmployeeServiceCacheTests {
+
+  @MockBean
+  private EmployeeRepository employeeRepository;
+  @MockBean
+  private EntityManager entityManager;
+
+  @Autowired
+  private EmployeeService employeeService;
+  @Autowired
+  private CacheManager cacheManager;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    cacheManager.getCache(CacheConfig.EMPLOYEES).clear();
+    employee = Employee.builder()
+        .id(1L)
+        .firstName("Nicolai")
+        .lastName("Mar")
+        .email("marunev@gmail.com")
+        .build();
+  }
+
+  @Test
+  public void givenCachedEmployee_whenGetEmployeeByIdAgain_thenRepositoryIsQueriedOnce() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+    // when
+    employeeService.getEmployeeById(1L);
+    Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+    //then
+    assertThat(cached).contains(employee);
+    verify(employeeRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  public void givenMissingEmployee_whenGetEmployeeByIdAgain_thenEmptyResultIsCached() {
+    // given
+    given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+    // when
+    employeeService.getEmployeeById(2L);
+    Optional<Employee> cached = employeeService.getEmployeeById(2L);
+
+    //then
+    assertThat(cached).isEmpty();
+    verify(employeeRepository, times(1)).findById(2L);
+  }
+
+  @Test
+  public void givenConcurrentMisses_whenGetEmployeeById_thenRepositoryIsQueriedOnce() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+      release.await();
+      return Optional.of(employee);
+    });
+    double coalesced = coalescedCalls();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    // when
+    List<Future<Optional<Employee>>> lookups = new ArrayList<>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        lookups.add(executor.submit(() -> employeeService.getEmployeeById(1L)));
+      }
+      while (coalescedCalls() < coalesced + 3) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      //then
+      for (Future<Optional<Employee>> lookup : lookups) {
+        assertThat(lookup.get(5, TimeUnit.SECONDS)).contains(employee);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(employeeRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  public void givenReadFromPrimary_whenMissCoincidesWithAnother_thenItQueriesOnItsOwn() throws Exception {
+    // given
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    given(employeeRepository.findById(1L)).willAnswer(invocation -> {
+      if (started.getCount() > 0) {
+        started.countDown();
+        release.await();
+      }
+      return Optional.of(employee);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // when
+    try {
+      Future<Optional<Employee>> shared = executor.submit(() -> employeeService.getEmployeeById(1L));
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      Future<Optional<Employee>> fromPrimary = executor.submit(() -> {
+        try (ReadYourWrites readYourWrites = ReadYourWrites.open(System.currentTimeMillis(),
+            Duration.ofMinutes(1), written -> { })) {
+          return employeeService.getEmployeeById(1L);
+        }
+      });
+
+      //then
+      assertThat(fromPrimary.get(5, TimeUnit.SECONDS)).contains(employee);
+      release.countDown();
+      assertThat(shared.get(5, TimeUnit.SECONDS)).contains(employee);
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+    verify(employeeRepository, times(2)).findById(1L);
+  }
+
+  // A window no test waits out: only a full batch of two ids closes it
+  @Nested
+  @TestPropertySource(properties = {"employee.batch.window=1m", "employee.batch.max-size=2"})
+  public class Batching {
+
+    @Test
+    public void givenConcurrentMissesForDifferentIds_whenGetEmployeeById_thenRepositoryIsQueriedOnce()
+        throws Exception {
+      // given
+      Employee employee2 = Employee.builder()
+          .id(2L)
+          .firstName("John")
+          .lastName("Cena")
+          .email("cena@gmail.com")
+          .build();
+      given(employeeRepository.findAllById(any())).willReturn(List.of(employee, employee2));
+      // A lookup still running, without which a miss would not wait for company
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      given(employeeRepository.findById(3L)).willAnswer(invocation -> {
+        started.countDown();
+        release.await();
+        return Optional.empty();
+      });
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+
+      // when
+      try {
+        Future<Optional<Employee>> slow = executor.submit(() -> employeeService.getEmployeeById(3L));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<Employee>> first = executor.submit(() -> employeeService.getEmployeeById(1L));
+        Optional<Employee> second = employeeService.getEmployeeById(2L);
+
+        //then
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains(employee);
+        assertThat(second).contains(employee2);
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEmpty();
+      } finally {
+        release.countDown();
+        executor.shutdownNow();
+      }
+      verify(employeeRepository, times(1)).findAllById(any());
+      verify(employeeRepository, never()).findById(1L);
+      verify(employeeRepository, never()).findById(2L);
+    }
+  }
+
+  private double coalescedCalls() {
+    return meterRegistry.get("employee.coalescing.calls")
+        .tag("method", "getEmployeeById")
+        .tag("outcome", "coalesced")
+        .counter()
+        .count();
+  }
+
+  @Test
+  public void givenCachedEmployee_whenUpdateEmployee_thenEntryIsEvicted() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+    given(employeeRepository.replaceEmployee(1L, "Nicolai", "Mar", "marunev@gmail.com")).willReturn(1);
+    employeeService.getEmployeeById(1L);
+
+    // when
+    employeeService.updateEmployee(employee);
+    employeeService.getEmployeeById(1L);
+
+    //then
+    verify(employeeRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  public void givenCachedEmployee_whenDeleteEmployee_thenEntryIsEvicted() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.of(employee)).willReturn(Optional.empty());
+    given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+    employeeService.getEmployeeById(1L);
+
+    // when
+    employeeService.deleteEmployee(1L);
+    Optional<Employee> afterDelete = employeeService.getEmployeeById(1L);
+
+    //then
+    assertThat(afterDelete).isEmpty();
+    verify(employeeRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  public void givenCachedMissingEmployee_whenSaveEmployee_thenNewEmployeeIsCached() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+    given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+    employeeService.getEmployeeById(1L);
+
+    // when
+    employeeService.saveEmployee(employee);
+    Optional<Employee> afterSave = employeeService.getEmployeeById(1L);
+
+    //then
+    assertThat(afterSave).contains(employee);
+    verify(employeeRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  public void givenCachedEmployee_whenDeleteEmployees_thenCacheIsCleared() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+    given(employeeRepository.deleteEmployeesByIds(List.of(1L))).willReturn(1);
+    employeeService.getEmployeeById(1L);
+
+    // when
+    employeeService.deleteEmployees(List.of(1L));
+    employeeService.getEmployeeById(1L);
+
+    //then
+    verify(employeeRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  public void givenLookups_whenReadingMetrics_thenHitsAndMissesAreRecorded() {
+    // given
+    given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+    double hits = cacheGets("hit");
+    double misses = cacheGets("miss");
+
+    // when
+    employeeService.getEmployeeById(1L);
+    employeeService.getEmployeeById(1L);
+
+    //then
+    assertThat(cacheGets("hit")).isEqualTo(hits + 1);
+    assertThat(cacheGets("miss")).isEqualTo(misses + 1);
+    assertThat(meterRegistry.find("cache.evictions").tag("cache", CacheConfig.EMPLOYEES).meter())
+        .isNotNull();
+  }
+
+  private double cacheGets(String result) {
+    return meterRegistry.get("cache.gets")
+        .tag("cache", CacheConfig.EMPLOYEES)
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+}
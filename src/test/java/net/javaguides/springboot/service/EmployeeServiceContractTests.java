@@ -0,0 +1,337 @@
+package net.javaguides.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeBatchResult.Status;
+import net.javaguides.springboot.model.EmployeeDto;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.inmemory.InMemoryEmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// One EmployeeService contract, run against each storage engine: EmployeeServiceImpl over JPA (H2) and
+// InMemoryEmployeeServiceImpl over a memory-only InMemoryEmployeeRepository
+public class EmployeeServiceContractTests {
+
+  abstract static class Contract {
+    private EmployeeService employeeService;
+
+    private Employee employee1;
+
+    protected abstract EmployeeService employeeService();
+
+    @BeforeEach
+    public void setup() {
+      employeeService = employeeService();
+
+      employee1 =
+          Employee.builder()
+              .firstName("Nicolai")
+              .lastName("Mar")
+              .email("marunev@gmail.com")
+              .build();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
+      // when
+      Employee savedEmployee = employeeService.saveEmployee(employee1);
+
+      //then
+      assertThat(savedEmployee.getId()).isGreaterThan(0);
+      assertThat(employeeService.getEmployeeById(savedEmployee.getId())).isPresent();
+    }
+
+    @Test
+    public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
+      // given
+      employeeService.saveEmployee(employee1);
+
+      // when
+      assertThrows(ResourceAlreadyExistsException.class,
+          () -> employeeService.saveEmployee(employee("John", "Cena", "marunev@gmail.com")));
+
+      //then
+      assertThat(employeeService.getAllEmployees()).hasSize(1);
+    }
+
+    @Test
+    public void givenMissingColumn_whenSaveEmployee_thenRethrowsOriginalException() {
+      // given
+      employee1.setFirstName(null);
+
+      // when / then
+      assertThrows(DataIntegrityViolationException.class, () -> employeeService.saveEmployee(employee1));
+    }
+
+    @Test
+    public void givenEmployeeList_whenSaveEmployees_thenPersistNewAndRejectDuplicates() {
+      // given
+      employeeService.saveEmployee(employee("Existing", "Employee", "marunev@gmail.com"));
+      Employee employee2 = employee("Second Employee", "Second LastName", "second@gmail.com");
+      Employee sameBatchDuplicate = employee("Third Employee", "Third LastName", "second@gmail.com");
+      Employee incomplete = employee("Fourth Employee", null, "fourth@gmail.com");
+
+      // when
+      List<EmployeeBatchResult> results =
+          employeeService.saveEmployees(List.of(employee1, employee2, sameBatchDuplicate, incomplete));
+
+      //then
+      assertThat(results).extracting(EmployeeBatchResult::getStatus)
+          .containsExactly(Status.REJECTED, Status.CREATED, Status.REJECTED, Status.REJECTED);
+      assertThat(results.get(1).getId()).isEqualTo(employee2.getId());
+      assertThat(employeeService.getAllEmployees()).extracting(Employee::getEmail)
+          .containsExactly("marunev@gmail.com", "second@gmail.com");
+    }
+
+    @Test
+    public void givenEmployeeList_whenFindAllEmployees_thenReturnEmployeeList() {
+      // given
+      employeeService.saveEmployee(employee1);
+      employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      List<Employee> employeeList = employeeService.getAllEmployees();
+
+      //then
+      assertThat(employeeList).hasSize(2);
+    }
+
+    @Test
+    public void givenEmptyEmployeeList_whenFindAllEmployees_thenReturnEmptyEmployeeList() {
+      // when
+      List<Employee> employeeList = employeeService.getAllEmployees();
+
+      //then
+      assertThat(employeeList).isEmpty();
+    }
+
+    @Test
+    public void givenCursor_whenGetEmployeesAfter_thenReturnKeysetPage() {
+      // given
+      Employee first = employeeService.saveEmployee(employee1);
+      Employee second = employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      List<Employee> page = employeeService.getEmployeesAfter(first.getId(), 50);
+
+      //then
+      assertThat(page).extracting(Employee::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    public void givenCursor_whenGetDirectoryAfter_thenReturnDtoPage() {
+      // given
+      Employee first = employeeService.saveEmployee(employee1);
+      employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      List<EmployeeDto> page = employeeService.getDirectoryAfter(first.getId(), 50, cursor -> { });
+
+      //then
+      assertThat(page).containsExactly(new EmployeeDto("John", "Cena"));
+      assertThat(employeeService.getDirectoryEntry(first.getId())).contains(new EmployeeDto("Nicolai", "Mar"));
+      assertThat(employeeService.getDirectoryByLastName("Cena", 50)).containsExactly(new EmployeeDto("John", "Cena"));
+    }
+
+    @Test
+    public void givenFullPage_whenGetDirectoryAfter_thenHandOutLastIdOfPage() {
+      // given
+      employeeService.saveEmployee(employee1);
+      Employee second = employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      List<Long> fullPage = new ArrayList<>();
+      employeeService.getDirectoryAfter(0, 2, fullPage::add);
+      List<Long> partialPage = new ArrayList<>();
+      employeeService.getDirectoryAfter(0, 3, partialPage::add);
+
+      //then
+      assertThat(fullPage).containsExactly(second.getId());
+      assertThat(partialPage).isEmpty();
+    }
+
+    @Test
+    public void givenCursor_whenGetEmployeesAfterOrExport_thenEmployeesComeInIdOrder() {
+      // given
+      Employee first = employeeService.saveEmployee(employee1);
+      Employee second = employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+      Employee third = employeeService.saveEmployee(employee("Kristian", "Ulmanu", "ulmanu@gmail.com"));
+
+      // when
+      List<Employee> page = employeeService.getEmployeesAfter(first.getId(), 1);
+      List<Long> exported = new ArrayList<>();
+      employeeService.exportEmployees(employee -> exported.add(employee.getId()));
+
+      //then
+      assertThat(page).extracting(Employee::getId).containsExactly(second.getId());
+      assertThat(exported).containsExactly(first.getId(), second.getId(), third.getId());
+    }
+
+    @Test
+    public void givenIdsWithDuplicatesAndUnknownIds_whenGetEmployeesByIds_thenReturnKnownEmployeesInOrder() {
+      // given
+      Employee first = employeeService.saveEmployee(employee1);
+      Employee second = employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      List<Employee> employees = employeeService.getEmployeesByIds(
+          List.of(second.getId(), -1L, first.getId(), second.getId()));
+
+      //then
+      assertThat(employees).extracting(Employee::getId).containsExactly(second.getId(), first.getId());
+    }
+
+    @Test
+    public void givenEmployeeObject_whenUpdateEmployee_thenReturnEmployeeObject() {
+      // given
+      Employee saved = employeeService.saveEmployee(employee1);
+      saved.setEmail("ram@gmail.com");
+      saved.setFirstName("Ram");
+
+      // when
+      Employee updatedEmployee = employeeService.updateEmployee(saved).get();
+
+      //then
+      assertThat(updatedEmployee.getEmail()).isEqualTo("ram@gmail.com");
+      assertThat(employeeService.getEmployeeById(saved.getId()).get().getFirstName()).isEqualTo("Ram");
+    }
+
+    @Test
+    public void givenEmployeeDeletedMeanwhile_whenUpdateEmployee_thenReturnEmptyAndDoNotCreateIt() {
+      // given
+      Employee saved = employeeService.saveEmployee(employee1);
+      employeeService.deleteEmployee(saved.getId());
+
+      // when
+      Optional<Employee> updatedEmployee = employeeService.updateEmployee(saved);
+
+      //then
+      assertThat(updatedEmployee).isEmpty();
+      assertThat(employeeService.getAllEmployees()).isEmpty();
+    }
+
+    @Test
+    public void givenEmailOfAnotherEmployee_whenUpdateOrPatchEmployee_thenThrowsException() {
+      // given
+      Employee saved = employeeService.saveEmployee(employee1);
+      employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+      saved.setEmail("cena@gmail.com");
+
+      // when / then
+      assertThrows(ResourceAlreadyExistsException.class, () -> employeeService.updateEmployee(saved));
+      assertThrows(ResourceAlreadyExistsException.class,
+          () -> employeeService.patchEmployee(saved.getId(), Employee.builder().email("cena@gmail.com").build()));
+    }
+
+    @Test
+    public void givenPartialEmployee_whenPatchEmployee_thenOnlyGivenFieldsChange() {
+      // given
+      Employee saved = employeeService.saveEmployee(employee1);
+
+      // when
+      boolean patched = employeeService.patchEmployee(saved.getId(), Employee.builder().lastName("Ram").build());
+
+      //then
+      assertThat(patched).isTrue();
+      assertThat(employeeService.getEmployeeById(saved.getId()).get())
+          .extracting(Employee::getFirstName, Employee::getLastName, Employee::getEmail)
+          .containsExactly("Nicolai", "Ram", "marunev@gmail.com");
+    }
+
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenReturnFalse() {
+      // when
+      boolean patched = employeeService.patchEmployee(1L, Employee.builder().lastName("Ram").build());
+
+      //then
+      assertThat(patched).isFalse();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployee_thenEmployeeIsDeleted() {
+      // given
+      Employee saved = employeeService.saveEmployee(employee1);
+
+      // when
+      boolean deleted = employeeService.deleteEmployee(saved.getId());
+
+      //then
+      assertThat(deleted).isTrue();
+      assertThat(employeeService.getEmployeeById(saved.getId())).isEmpty();
+      assertThat(employeeService.deleteEmployee(saved.getId())).isFalse();
+    }
+
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenDeleteOnlyThose() {
+      // given
+      Employee first = employeeService.saveEmployee(employee1);
+      Employee second = employeeService.saveEmployee(employee("John", "Cena", "cena@gmail.com"));
+
+      // when
+      int deleted = employeeService.deleteEmployees(List.of(first.getId(), -1L));
+
+      //then
+      assertThat(deleted).isEqualTo(1);
+      assertThat(employeeService.getAllEmployees()).extracting(Employee::getId).containsExactly(second.getId());
+      assertThat(employeeService.deleteEmployees(List.of())).isZero();
+    }
+
+    private static Employee employee(String firstName, String lastName, String email) {
+      return Employee.builder()
+          .firstName(firstName)
+          .lastName(lastName)
+          .email(email)
+          .build();
+    }
+  }
+
+  // Not transactional: each service call commits on its own, as it does behind the controller
+  @Nested
+  @DataJpaTest
+  @Import({EmployeeServiceImpl.class, SimpleMeterRegistry.class})
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  class Jpa extends Contract {
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Override
+    protected EmployeeService employeeService() {
+      return employeeService;
+    }
+
+    @AfterEach
+    public void tearDown() {
+      employeeRepository.deleteAll();
+    }
+  }
+
+  @Nested
+  class InMemory extends Contract {
+    @Override
+    protected EmployeeService employeeService() {
+      return new InMemoryEmployeeServiceImpl(new InMemoryEmployeeRepository(4));
+    }
+  }
+}
@@ -3,26 +3,37 @@ package net.javaguides.springboot.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import net.javaguides.springboot.exception.ResourceNotFoundException;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult;
+import net.javaguides.springboot.model.EmployeeBatchResult.Status;
+import net.javaguides.springboot.model.EmployeeDto;
 import net.javaguides.springboot.repository.EmployeeRepository;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.boot.test.context.SpringBootTest;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,7 +41,8 @@ public class EmployeeServiceTest {
 
   @Mock
   private EmployeeRepository employeeRepository;
-  @InjectMocks
+  @Mock
+  private EntityManager entityManager;
   private EmployeeServiceImpl employeeService;
 
   private Employee employee1;
@@ -38,7 +50,8 @@ public class EmployeeServiceTest {
   @BeforeEach
   public void setup() {
 //    employeeRepository = mock(EmployeeRepository.class);
-//    employeeService = new EmployeeServiceImpl(employeeRepository);
+    employeeService = new EmployeeServiceImpl(employeeRepository, entityManager, new SimpleMeterRegistry(),
+        Duration.ZERO, 100);
 
     employee1 =
         Employee.builder()
@@ -52,33 +65,79 @@ public class EmployeeServiceTest {
   @Test
   public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
     // given
-    given(employeeRepository.findByEmail(employee1.getEmail()))
-        .willReturn(Optional.empty());
-
-    given(employeeRepository.save(employee1)).willReturn(employee1);
+    given(employeeRepository.saveAndFlush(employee1)).willReturn(employee1);
     // when
     Employee savedEmployee = employeeService.saveEmployee(employee1);
 
     //then
 
     assertThat(savedEmployee).isNotNull();
+    verify(employeeRepository, never()).findByEmail(any());
   }
 
 
   @Test
   public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
     // given
-    given(employeeRepository.findByEmail(employee1.getEmail()))
-        .willReturn(Optional.of(employee1));
+    given(employeeRepository.saveAndFlush(employee1)).willThrow(new DataIntegrityViolationException(
+        "could not execute statement",
+        new SQLException("Duplicate entry 'marunev@gmail.com' for key 'employees.uk_employees_email'")));
 
     // when
-    assertThrows(ResourceNotFoundException.class,
+    assertThrows(ResourceAlreadyExistsException.class,
         () -> employeeService.saveEmployee(employee1));
 
     //then
-    verify(employeeRepository, never()).save(any(Employee.class));
+    verify(employeeRepository, never()).findByEmail(any());
   }
 
+
+  @Test
+  public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowsOriginalException() {
+    // given
+    DataIntegrityViolationException violation = new DataIntegrityViolationException(
+        "could not execute statement", new SQLException("Column 'first_name' cannot be null"));
+    given(employeeRepository.saveAndFlush(employee1)).willThrow(violation);
+
+    // when
+    DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+        () -> employeeService.saveEmployee(employee1));
+
+    //then
+    assertThat(thrown).isSameAs(violation);
+  }
+
+  @Test
+  public void givenEmployeeList_whenSaveEmployees_thenPersistNewAndRejectDuplicates() {
+    // given
+    Employee employee2 =
+        Employee.builder()
+            .firstName("Second Employee")
+            .lastName("Second LastName")
+            .email("second@gmail.com")
+            .build();
+    Employee sameBatchDuplicate =
+        Employee.builder()
+            .firstName("Third Employee")
+            .lastName("Third LastName")
+            .email("second@gmail.com")
+            .build();
+    given(employeeRepository.findExistingEmails(List.of("marunev@gmail.com", "second@gmail.com")))
+        .willReturn(List.of("marunev@gmail.com"));
+
+    // when
+    List<EmployeeBatchResult> results =
+        employeeService.saveEmployees(List.of(employee1, employee2, sameBatchDuplicate));
+
+    //then
+    assertThat(results).extracting(EmployeeBatchResult::getStatus)
+        .containsExactly(Status.REJECTED, Status.CREATED, Status.REJECTED);
+    verify(entityManager, times(1)).persist(employee2);
+    verify(entityManager, never()).persist(employee1);
+    verify(entityManager, never()).persist(sameBatchDuplicate);
+  }
+
+
   @Test
   public void givenEmployeeList_whenFindAllEmployees_thenReturnEmployeeList() {
     // given
@@ -117,6 +176,61 @@ public class EmployeeServiceTest {
   }
 
 
+  @Test
+  public void givenCursor_whenGetEmployeesAfter_thenReturnKeysetPage() {
+    // given
+    given(employeeRepository.findPageAfter(1L, PageRequest.ofSize(10)))
+        .willReturn(List.of(employee1));
+
+    // when
+    List<Employee> employeeList = employeeService.getEmployeesAfter(1L, 10);
+
+    //then
+    assertThat(employeeList).containsExactly(employee1);
+  }
+
+
+  @Test
+  public void givenCursor_whenGetDirectoryAfter_thenReturnDtoPage() {
+    // given
+    EmployeeDto entry = new EmployeeDto(employee1.getFirstName(), employee1.getLastName());
+    given(employeeRepository.findDirectoryPageAfter(1L, PageRequest.ofSize(10)))
+        .willReturn(List.of(entry));
+
+    // when
+    List<Long> nextCursor = new ArrayList<>();
+    List<EmployeeDto> directory = employeeService.getDirectoryAfter(1L, 10, nextCursor::add);
+
+    //then
+    assertThat(directory).containsExactly(entry);
+    assertThat(nextCursor).isEmpty();
+    verify(employeeRepository, never()).findPageAfter(anyLong(), any());
+  }
+
+
+  @Test
+  public void givenEmployeeStream_whenExportEmployees_thenEachEmployeeIsDetachedAfterConsuming() {
+    // given
+    Employee employee2 =
+        Employee.builder()
+            .id(2)
+            .firstName("Second Employee")
+            .lastName("Second LastName")
+            .email("second@gmail.com")
+            .build();
+    given(employeeRepository.streamAll()).willReturn(Stream.of(employee1, employee2));
+    List<Employee> exported = new ArrayList<>();
+
+    // when
+    employeeService.exportEmployees(exported::add);
+
+    //then
+    assertThat(exported).containsExactly(employee1, employee2);
+    verify(entityManager).detach(employee1);
+    verify(entityManager).detach(employee2);
+  }
+
+
   @Test
   public void givenEmployee_whenFindById_thenReturnEmployee() {
     // given
@@ -131,6 +245,43 @@ public class EmployeeServiceTest {
   }
 
 
+  @Test
+  public void givenIdsWithDuplicatesAndUnknownIds_whenGetEmployeesByIds_thenReturnKnownEmployeesInOrder() {
+    // given
+    Employee employee2 =
+        Employee.builder()
+            .id(2)
+            .firstName("Second Employee")
+            .lastName("Second LastName")
+            .email("second@gmail.com")
+            .build();
+    given(employeeRepository.findAllById(List.of(2L, 3L, 1L))).willReturn(List.of(employee1, employee2));
+
+    // when
+    List<Employee> employees = employeeService.getEmployeesByIds(List.of(2L, 3L, 1L, 2L));
+
+    //then
+    assertThat(employees).containsExactly(employee2, employee1);
+  }
+
+
+  @Test
+  public void givenMoreIdsThanOneChunk_whenGetEmployeesByIds_thenQueryPerChunk() {
+    // given
+    List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+    given(employeeRepository.findAllById(any())).willReturn(List.of(employee1));
+
+    // when
+    List<Employee> employees = employeeService.getEmployeesByIds(ids);
+
+    //then
+    assertThat(employees).containsExactly(employee1);
+    verify(employeeRepository).findAllById(ids.subList(0, 1000));
+    verify(employeeRepository).findAllById(ids.subList(1000, 2000));
+    verify(employeeRepository).findAllById(ids.subList(2000, 2500));
+  }
+
+
   @Test
   public void givenEmployeeObject_whenUpdateEmployee_thenReturnEmployeeObject() {
     // given
@@ -143,14 +294,59 @@ public class EmployeeServiceTest {
             .build();
 
 
-    given(employeeRepository.save(any(Employee.class))).willAnswer(invoke -> invoke.getArgument(0));
+    given(employeeRepository.replaceEmployee(1L, "Second Employee", "Second LastName", "second@gmail.com"))
+        .willReturn(1);
+
+    // when
+    Optional<Employee> updatedEmployee = employeeService.updateEmployee(newEmployee);
+
+    //then
+    assertThat(updatedEmployee).isPresent();
+    assertThat(updatedEmployee.get().getLastName()).isEqualTo("Second LastName");
+    verify(employeeRepository, never()).save(any());
+  }
+
+
+  @Test
+  public void givenEmployeeDeletedMeanwhile_whenUpdateEmployee_thenReturnEmptyAndDoNotCreateIt() {
+    // given
+    given(employeeRepository.replaceEmployee(1L, "Nicolai", "Mar", "marunev@gmail.com")).willReturn(0);
 
     // when
-    Employee updatedEmployee = employeeService.updateEmployee(newEmployee);
+    Optional<Employee> updatedEmployee = employeeService.updateEmployee(employee1);
 
     //then
-    assertThat(updatedEmployee).isNotNull();
-    assertThat(updatedEmployee.getLastName()).isEqualTo("Second LastName");
+    assertThat(updatedEmployee).isEmpty();
+    verify(employeeRepository, never()).save(any());
+  }
+
+
+  @Test
+  public void givenPartialEmployee_whenPatchEmployee_thenSingleUpdateWithNullsForMissingFields() {
+    // given
+    Employee changes = Employee.builder().email("second@gmail.com").build();
+    given(employeeRepository.patchEmployee(1L, null, null, "second@gmail.com")).willReturn(1);
+
+    // when
+    boolean patched = employeeService.patchEmployee(1L, changes);
+
+    //then
+    assertThat(patched).isTrue();
+    verify(employeeRepository, never()).findById(any());
+  }
+
+
+  @Test
+  public void givenMissingEmployee_whenPatchEmployee_thenReturnFalse() {
+    // given
+    given(employeeRepository.patchEmployee(1L, "Second Employee", null, null)).willReturn(0);
+
+    // when
+    boolean patched =
+        employeeService.patchEmployee(1L, Employee.builder().firstName("Second Employee").build());
+
+    //then
+    assertThat(patched).isFalse();
   }
 
 
@@ -158,11 +354,37 @@ public class EmployeeServiceTest {
   public void givenEmployeeObject_whenDeleteEmployee_thenEmployeeIsDeleted() {
     // given
     long employeeId = 1L;
-    willDoNothing().given(employeeRepository).deleteById(employeeId);
+    given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
+    // when
+    boolean deleted = employeeService.deleteEmployee(employeeId);
+    //then
+    assertThat(deleted).isTrue();
+    verify(employeeRepository, times(1)).deleteEmployeeById(employeeId);
+    verify(employeeRepository, never()).findById(employeeId);
+  }
+
+
+  @Test
+  public void givenMissingEmployee_whenDeleteEmployee_thenReturnFalse() {
+    // given
+    long employeeId = 1L;
+    given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(0);
+    // when
+    boolean deleted = employeeService.deleteEmployee(employeeId);
+    //then
+    assertThat(deleted).isFalse();
+  }
+
+
+  @Test
+  public void givenEmployeeIds_whenDeleteEmployees_thenDeleteWithOneStatement() {
+    // given
+    List<Long> ids = List.of(1L, 2L);
+    given(employeeRepository.deleteEmployeesByIds(ids)).willReturn(2);
     // when
-    employeeService.deleteEmployee(employeeId);
+    int deleted = employeeService.deleteEmployees(ids);
     //then
-    verify(employeeRepository, times(1)).deleteById(employeeId);
+    assertThat(deleted).isEqualTo(2);
   }
 
 }
@@ -0,0 +1,83 @@
+package net.javaguides.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Each service call opens its own transaction here, as it does behind the controller with open-in-view off
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(EmployeeServiceImpl.class)
+@ImportAutoConfiguration({MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class,
+    CompositeMeterRegistryAutoConfiguration.class})
+public class EmployeeServiceTransactionTests {
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  public void setup() {
+    // given
+    employeeRepository.saveAll(List.of(
+        Employee.builder().firstName("Nicolai").lastName("Mar").email("marunev@gmail.com").build(),
+        Employee.builder().firstName("John").lastName("Cena").email("cena@gmail.com").build()));
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    employeeRepository.deleteAllInBatch();
+  }
+
+  @Test
+  public void givenEmployees_whenGetEmployeesAfter_thenReadInOneTransactionWithoutFlush() {
+    // when
+    List<Employee> employees = employeeService.getEmployeesAfter(0, 10);
+
+    //then
+    assertThat(employees).hasSize(2);
+    assertThat(statistics.getTransactionCount()).isEqualTo(1);
+    assertThat(statistics.getFlushCount()).isZero();
+  }
+
+  @Test
+  public void givenReadWriteTransaction_whenGetEmployeesAfter_thenFlushedAtCommit() {
+    // when
+    new TransactionTemplate(transactionManager).execute(status -> employeeService.getEmployeesAfter(0, 10));
+
+    //then the dirty check that the read-only transaction skips
+    assertThat(statistics.getFlushCount()).isEqualTo(1);
+  }
+}
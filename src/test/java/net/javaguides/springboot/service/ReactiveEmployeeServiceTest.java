@@ -0,0 +1,149 @@
+package net.javaguides.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.util.List;
+import net.javaguides.springboot.exception.ResourceAlreadyExistsException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeBatchResult.Status;
+import net.javaguides.springboot.repository.ReactiveEmployeeRepository;
+import net.javaguides.springboot.service.impl.ReactiveEmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveEmployeeServiceTest {
+
+  @Mock
+  private ReactiveEmployeeRepository employeeRepository;
+  @Mock
+  private R2dbcEntityTemplate entityTemplate;
+
+  private ReactiveEmployeeServiceImpl employeeService;
+
+  private Employee employee;
+
+  @BeforeEach
+  public void setup() {
+    employeeService = new ReactiveEmployeeServiceImpl(employeeRepository, entityTemplate, "tsid", 0);
+    employee = Employee.builder()
+        .firstName("Nicolai")
+        .lastName("Mar")
+        .email("marunev@gmail.com")
+        .build();
+  }
+
+  @Test
+  public void givenSequenceIdStrategy_whenCreateService_thenRefuseToStart() {
+    assertThatIllegalStateException()
+        .isThrownBy(() -> new ReactiveEmployeeServiceImpl(employeeRepository, entityTemplate, "sequence", 0))
+        .withMessageContaining("employee.id.strategy=tsid");
+  }
+
+  @Test
+  public void givenEmployeeObject_whenSaveEmployee_thenInsertWithGeneratedId() {
+    // given
+    given(entityTemplate.insert(any(Employee.class)))
+        .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    // when / then
+    StepVerifier.create(employeeService.saveEmployee(employee))
+        .assertNext(saved -> assertThat(saved.getId()).isPositive())
+        .verifyComplete();
+    verify(employeeRepository, never()).save(any(Employee.class));
+  }
+
+  @Test
+  public void givenExistingEmail_whenSaveEmployee_thenError() {
+    // given
+    given(entityTemplate.insert(any(Employee.class))).willReturn(Mono.error(new DataIntegrityViolationException(
+        "insert failed",
+        new SQLException("Duplicate entry 'marunev@gmail.com' for key 'employees.uk_employees_email'"))));
+
+    // when / then
+    StepVerifier.create(employeeService.saveEmployee(employee))
+        .expectError(ResourceAlreadyExistsException.class)
+        .verify();
+  }
+
+  @Test
+  public void givenEmployeeList_whenSaveEmployees_thenInsertNewAndRejectDuplicates() {
+    // given
+    Employee taken = Employee.builder().firstName("John").lastName("Cena").email("cena@gmail.com").build();
+    Employee incomplete = Employee.builder().firstName("Kristian").email("ronaldo@gmail.com").build();
+    given(employeeRepository.findExistingEmails(anyCollection())).willReturn(Flux.just("cena@gmail.com"));
+    given(entityTemplate.insert(any(Employee.class)))
+        .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    // when / then
+    StepVerifier.create(employeeService.saveEmployees(List.of(employee, taken, incomplete)))
+        .assertNext(result -> {
+          assertThat(result.getStatus()).isEqualTo(Status.CREATED);
+          assertThat(result.getId()).isPositive();
+        })
+        .assertNext(result -> assertThat(result.getStatus()).isEqualTo(Status.REJECTED))
+        .assertNext(result -> assertThat(result.getStatus()).isEqualTo(Status.REJECTED))
+        .verifyComplete();
+    verify(entityTemplate, times(1)).insert(any(Employee.class));
+  }
+
+  @Test
+  public void givenPageSize_whenGetNextCursor_thenLooksUpLastIdOfPage() {
+    // given
+    given(employeeRepository.findIdAfter(10, 49)).willReturn(Mono.just(60L));
+
+    // when / then
+    StepVerifier.create(employeeService.getNextCursor(10, 50))
+        .expectNext(60L)
+        .verifyComplete();
+  }
+
+  @Test
+  public void givenDeletedEmployee_whenUpdateEmployee_thenEmpty() {
+    // given
+    Employee replacement = Employee.builder().id(1L).firstName("Ram").lastName("Jadhav").email("ram@gmail.com")
+        .build();
+    given(employeeRepository.replaceEmployee(1L, "Ram", "Jadhav", "ram@gmail.com")).willReturn(Mono.just(0));
+
+    // when / then
+    StepVerifier.create(employeeService.updateEmployee(replacement))
+        .verifyComplete();
+    verify(employeeRepository, never()).save(any(Employee.class));
+  }
+
+  @Test
+  public void givenPartialEmployee_whenPatchEmployee_thenReturnWhetherRowMatched() {
+    // given
+    Employee changes = Employee.builder().email("ram@gmail.com").build();
+    given(employeeRepository.patchEmployee(1L, null, null, "ram@gmail.com")).willReturn(Mono.just(0));
+
+    // when / then
+    StepVerifier.create(employeeService.patchEmployee(1L, changes))
+        .expectNext(false)
+        .verifyComplete();
+  }
+
+  @Test
+  public void givenNoIds_whenDeleteEmployees_thenNoStatement() {
+    StepVerifier.create(employeeService.deleteEmployees(List.of()))
+        .expectNext(0)
+        .verifyComplete();
+    verify(employeeRepository, never()).deleteEmployeesByIds(anyCollection());
+  }
+}
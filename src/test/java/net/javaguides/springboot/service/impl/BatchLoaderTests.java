@@ -0,0 +1,191 @@
+package net.javaguides.springboot.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchLoaderTests {
+  private static final int CALLERS = 8;
+  // Long enough that only a full batch closes it in these tests
+  private static final Duration LONG_WINDOW = Duration.ofSeconds(30);
+  // Its single-key load blocks until released, so a batch opened meanwhile waits out its window
+  private static final long SLOW_KEY = 0L;
+
+  private MeterRegistry meterRegistry;
+  private List<Long> singleLoads;
+  private List<Collection<Long>> batchLoads;
+  private ExecutorService executor;
+  private CountDownLatch slowLoadStarted;
+  private CountDownLatch slowLoadReleased;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    singleLoads = new CopyOnWriteArrayList<>();
+    batchLoads = new CopyOnWriteArrayList<>();
+    executor = Executors.newFixedThreadPool(CALLERS + 1);
+    slowLoadStarted = new CountDownLatch(1);
+    slowLoadReleased = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    slowLoadReleased.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void givenConcurrentCallsForDifferentKeys_whenLoad_thenOneBatchLoadServesAll() throws Exception {
+    // given
+    BatchLoader<Long, String> loader = loader(LONG_WINDOW, CALLERS, this::names);
+    Future<String> slow = startSlowLoad(loader);
+
+    // when
+    List<Future<String>> results = new ArrayList<>();
+    for (long id = 1; id <= CALLERS; id++) {
+      long key = id;
+      results.add(executor.submit(() -> loader.load(key)));
+    }
+
+    //then
+    for (int i = 0; i < CALLERS; i++) {
+      assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("employee-" + (i + 1));
+    }
+    assertThat(batchLoads).hasSize(1);
+    assertThat(batchLoads.get(0)).hasSize(CALLERS);
+    assertThat(singleLoads).containsExactly(SLOW_KEY);
+    slowLoadReleased.countDown();
+    assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("employee-0");
+    assertThat(meterRegistry.get(BatchLoader.BATCH_SIZE).summary().max()).isEqualTo(CALLERS);
+  }
+
+  @Test
+  public void givenSameKeyTwiceInBatch_whenLoad_thenKeyIsLoadedOnce() throws Exception {
+    // given two distinct keys, so the batch never fills and closes when the window passes
+    BatchLoader<Long, String> loader = loader(Duration.ofSeconds(1), 3, this::names);
+    startSlowLoad(loader);
+
+    // when
+    Future<String> first = executor.submit(() -> loader.load(1L));
+    Future<String> second = executor.submit(() -> loader.load(1L));
+    String third = loader.load(2L);
+
+    //then
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+    assertThat(third).isEqualTo("employee-2");
+    assertThat(batchLoads).hasSize(1);
+    assertThat(batchLoads.get(0)).containsExactlyInAnyOrder(1L, 2L);
+  }
+
+  @Test
+  public void givenSingleCaller_whenWindowPasses_thenSingleKeyLoaderIsUsed() throws Exception {
+    // given
+    BatchLoader<Long, String> loader = loader(Duration.ofMillis(10), CALLERS, this::names);
+    startSlowLoad(loader);
+
+    // when
+    String name = loader.load(1L);
+
+    //then
+    assertThat(name).isEqualTo("employee-1");
+    assertThat(singleLoads).containsExactly(SLOW_KEY, 1L);
+    assertThat(batchLoads).isEmpty();
+  }
+
+  @Test
+  public void givenNoOtherLoadInFlight_whenLoad_thenDispatchWithoutWaitingOutTheWindow() {
+    // given
+    BatchLoader<Long, String> loader = loader(LONG_WINDOW, CALLERS, this::names);
+
+    // when
+    long start = System.nanoTime();
+    String name = loader.load(1L);
+
+    //then
+    assertThat(name).isEqualTo("employee-1");
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    assertThat(singleLoads).containsExactly(1L);
+  }
+
+  @Test
+  public void givenUnknownKeyInBatch_whenLoad_thenLoadsAsNull() throws Exception {
+    // given
+    BatchLoader<Long, String> loader = loader(LONG_WINDOW, 2, keys -> names(List.of(1L)));
+    startSlowLoad(loader);
+
+    // when
+    Future<String> known = executor.submit(() -> loader.load(1L));
+    String unknown = loader.load(2L);
+
+    //then
+    assertThat(known.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+    assertThat(unknown).isNull();
+  }
+
+  @Test
+  public void givenFailingBatchLoad_whenLoad_thenEveryCallerGetsTheException() throws Exception {
+    // given
+    IllegalStateException failure = new IllegalStateException("database down");
+    BatchLoader<Long, String> loader = loader(LONG_WINDOW, 2, keys -> {
+      throw failure;
+    });
+    startSlowLoad(loader);
+
+    // when
+    Future<String> first = executor.submit(() -> loader.load(1L));
+    IllegalStateException second = assertThrows(IllegalStateException.class, () -> loader.load(2L));
+
+    //then
+    assertThat(second).isSameAs(failure);
+    assertThat(assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS))).hasCause(failure);
+  }
+
+  // Returns once SLOW_KEY is being loaded, on its own since nothing else is in flight
+  private Future<String> startSlowLoad(BatchLoader<Long, String> loader) throws InterruptedException {
+    Future<String> slow = executor.submit(() -> loader.load(SLOW_KEY));
+    assertThat(slowLoadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+    return slow;
+  }
+
+  private BatchLoader<Long, String> loader(Duration window, int maxBatchSize,
+      Function<Collection<Long>, Map<Long, String>> batchLoader) {
+    return new BatchLoader<>("find", key -> {
+      singleLoads.add(key);
+      if (key == SLOW_KEY) {
+        slowLoadStarted.countDown();
+        try {
+          slowLoadReleased.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return "employee-" + key;
+    }, keys -> {
+      batchLoads.add(List.copyOf(keys));
+      return batchLoader.apply(keys);
+    }, window, maxBatchSize, meterRegistry);
+  }
+
+  private Map<Long, String> names(Collection<Long> keys) {
+    return keys.stream().collect(Collectors.toMap(key -> key, key -> "employee-" + key));
+  }
+}
@@ -0,0 +1,146 @@
+package net.javaguides.springboot.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTests {
+  private static final int CALLERS = 8;
+
+  private MeterRegistry meterRegistry;
+  private SingleFlight<Long, String> singleFlight;
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    singleFlight = new SingleFlight<>("find", meterRegistry);
+    executor = Executors.newFixedThreadPool(CALLERS);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void givenConcurrentCallsForSameKey_whenExecute_thenLoaderRunsOnceAndAllShareItsResult() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+
+    // when
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+        loads.incrementAndGet();
+        await(release);
+        return "employee-1";
+      })));
+    }
+    waitUntilInFlight(1);
+    waitUntilCoalesced(CALLERS - 1);
+    release.countDown();
+
+    //then
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+    }
+    assertThat(loads).hasValue(1);
+    assertThat(calls("executed")).isEqualTo(1);
+    assertThat(calls("coalesced")).isEqualTo(CALLERS - 1);
+    assertThat(meterRegistry.get(SingleFlight.IN_FLIGHT).gauge().value()).isZero();
+  }
+
+  @Test
+  public void givenFailingLoader_whenCallsAreCoalesced_thenEveryCallerGetsTheException() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    IllegalStateException failure = new IllegalStateException("database down");
+    Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+      await(release);
+      throw failure;
+    }));
+    waitUntilInFlight(1);
+    Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "unused"));
+    waitUntilCoalesced(1);
+
+    // when
+    release.countDown();
+
+    //then
+    assertThat(assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS))).hasCause(failure);
+    assertThat(assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS))).hasCause(failure);
+  }
+
+  @Test
+  public void givenCompletedCall_whenExecuteAgain_thenLoaderRunsAgain() {
+    // given
+    singleFlight.execute(1L, () -> "first");
+
+    // when
+    String second = singleFlight.execute(1L, () -> "second");
+
+    //then
+    assertThat(second).isEqualTo("second");
+    assertThat(calls("executed")).isEqualTo(2);
+    assertThat(calls("coalesced")).isZero();
+  }
+
+  @Test
+  public void givenDifferentKeys_whenExecuteConcurrently_thenEachKeyIsLoaded() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+      await(release);
+      return "employee-1";
+    }));
+    waitUntilInFlight(1);
+
+    // when
+    String second = singleFlight.execute(2L, () -> "employee-2");
+    release.countDown();
+
+    //then
+    assertThat(second).isEqualTo("employee-2");
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+    assertThat(calls("coalesced")).isZero();
+  }
+
+  private double calls(String outcome) {
+    return meterRegistry.get(SingleFlight.CALLS).tag("outcome", outcome).counter().count();
+  }
+
+  private void waitUntilInFlight(int keys) throws InterruptedException {
+    while (meterRegistry.get(SingleFlight.IN_FLIGHT).gauge().value() < keys) {
+      Thread.sleep(1);
+    }
+  }
+
+  private void waitUntilCoalesced(int callers) throws InterruptedException {
+    while (calls("coalesced") < callers) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+-- Same table the JPA stack creates through ddl-auto, for the reactive tests on H2
+create table if not exists employees (
+  id bigint not null primary key,
+  first_name varchar(255) not null,
+  last_name varchar(255) not null,
+  email varchar(255) not null,
+  constraint uk_employees_email unique (email)
+);
+create index if not exists idx_employees_last_name_first_name on employees (last_name, first_name);